@@ -1,5 +1,7 @@
 package com.example.user;
 
+import com.example.utils.SlowRequestLog;
+import com.example.utils.SqlLog;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -15,6 +17,9 @@ public class AdminResource {
     @Inject
     AdminService adminService;
 
+    @Inject
+    SlowRequestLog slowRequestLog;
+
     @POST
     @Path("/create")
     public Response createUser(User user) {
@@ -47,4 +52,67 @@ public class AdminResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         }
     }
+
+    @GET
+    @Path("/users/search")
+    public Response searchUsers(@QueryParam("q") String query,
+                                @QueryParam("match") @DefaultValue("prefix") String match,
+                                @QueryParam("role") String role,
+                                @QueryParam("minCoins") Integer minCoins,
+                                @QueryParam("maxCoins") Integer maxCoins,
+                                @QueryParam("sort") String sort,
+                                @QueryParam("page") @DefaultValue("0") int page,
+                                @QueryParam("size") @DefaultValue("20") int size) {
+        if (!"prefix".equals(match) && !"contains".equals(match)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("match must be 'prefix' or 'contains'.").build();
+        }
+        try {
+            return Response.ok(adminService.searchUsers(query, "contains".equals(match), role, minCoins, maxCoins,
+                    sort, page, size)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+    }
+
+    @GET
+    @Path("/slow-requests")
+    public Response getSlowRequests() {
+        return Response.ok(slowRequestLog.recent()).build();
+    }
+
+    @DELETE
+    @Path("/slow-requests")
+    public Response clearSlowRequests() {
+        slowRequestLog.clear();
+        return Response.ok("Slow request log cleared.").build();
+    }
+
+    @GET
+    @Path("/sql-log")
+    public Response getSqlLogSettings() {
+        return Response.ok(SqlLog.settings()).build();
+    }
+
+    @PUT
+    @Path("/sql-log")
+    public Response updateSqlLogSettings(SqlLog.Settings settings) {
+        try {
+            SqlLog.update(settings);
+            return Response.ok(SqlLog.settings()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+    }
+
+    @GET
+    @Path("/economy")
+    public Response getEconomyStats() {
+        return Response.ok(adminService.getEconomyStats()).build();
+    }
+
+    @GET
+    @Path("/cache-stats")
+    public Response getCacheStatistics() {
+        return Response.ok(adminService.getCacheStatistics()).build();
+    }
 }
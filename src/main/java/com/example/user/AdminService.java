@@ -1,17 +1,52 @@
 package com.example.user;
 
+import com.example.utils.RetryOnConflict;
+import com.example.utils.TimedSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
-import org.mindrot.jbcrypt.BCrypt;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @ApplicationScoped
+@TimedSpan
 public class AdminService {
 
     @Inject
     EntityManager em;
 
+    @Inject
+    PasswordHasher passwordHasher;
+
+    @Inject
+    PortfolioValuer portfolioValuer;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    CoinEconomyStats economyStats;
+
+    @ConfigProperty(name = "user.search.max-page-size", defaultValue = "100")
+    int maxPageSize;
+
+    // Above this many matches the index hands over to a LIKE query instead of an IN list
+    @ConfigProperty(name = "user.search.max-candidates", defaultValue = "1000")
+    int maxCandidates;
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "u.id", "username", "u.username", "email", "u.email", "limCoins", "u.limCoins", "role", "u.role");
+
     @Transactional
     public void createUser(User user) {
         if (user.getUsername() == null || user.getEmail() == null || user.getPassword() == null) {
@@ -37,7 +72,7 @@ public class AdminService {
             }
 
             // Hash the password
-            user.setPassword(BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()));
+            user.setPassword(passwordHasher.hash(user.getPassword()));
 
             // Set role to "User" if not provided
             if (user.getRole() == null || user.getRole().isEmpty()) {
@@ -49,6 +84,9 @@ public class AdminService {
 
             // Persist the user
             em.persist(user);
+            portfolioValuer.recompute(user);
+            searchIndex.indexAfterCommit(user);
+            economyStats.userCreated(user.getRole(), user.getLimCoins());
         } catch (Exception e) {
             // Add debugging logs
             e.printStackTrace();
@@ -57,6 +95,7 @@ public class AdminService {
     }
 
     @Transactional
+    @RetryOnConflict
     public void updateUser(Long id, User updatedUser) {
         User existingUser = em.find(User.class, id);
         if (existingUser == null) {
@@ -72,6 +111,7 @@ public class AdminService {
             existingUser.setPassword(updatedUser.getPassword());
         }
         em.merge(existingUser);
+        searchIndex.indexAfterCommit(existingUser);
     }
 
     @Transactional
@@ -81,5 +121,124 @@ public class AdminService {
             throw new IllegalArgumentException("User not found.");
         }
         em.remove(user);
+        portfolioValuer.remove(id);
+        economyStats.userDeleted(user.getRole(), user.getLimCoins());
+        searchIndex.removeAfterCommit(id);
+    }
+
+    /**
+     * Users matching all the given filters, one page at a time. The name/email
+     * query is resolved through UserSearchIndex; role and coin range use the
+     * users indexes. sort is a column name, prefixed with '-' for descending.
+     */
+    public UserSearchPage searchUsers(String query, boolean contains, String role, Integer minCoins,
+                                      Integer maxCoins, String sort, int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page must be 0 or more and size between 1 and " + maxPageSize + ".");
+        }
+        long offset = (long) page * size;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page " + page + " of size " + size + " is past the last possible result.");
+        }
+        boolean descending = sort != null && sort.startsWith("-");
+        String sortColumn = SORT_COLUMNS.get(sort == null ? "id" : descending ? sort.substring(1) : sort);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Unknown sort '" + sort + "', expected one of " + SORT_COLUMNS.keySet() + ".");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (query != null && !query.isBlank()) {
+            // Without other filters, matching, counting and ordering by id, username or email need only the index;
+            // pages past max-candidates go to the database, which can skip rows without ranking them
+            boolean indexOnly = (role == null || role.isBlank()) && minCoins == null && maxCoins == null
+                    && Set.of("u.id", "u.username", "u.email").contains(sortColumn) && offset + size <= maxCandidates;
+            if (indexOnly) {
+                UserSearchIndex.Page found = searchIndex.search(query.trim(), contains, sortColumn.substring(2),
+                        descending, (int) offset, size);
+                return new UserSearchPage(summaries(found.ids()), found.total(), page, size);
+            }
+            Set<Long> ids = searchIndex.match(query.trim(), contains, maxCandidates);
+            if (ids == null) {
+                String escaped = UserSearchIndex.normalize(query.trim())
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                conditions.add("(u.usernameLower LIKE :pattern ESCAPE '\\' OR u.emailLower LIKE :pattern ESCAPE '\\')");
+                parameters.put("pattern", (contains ? "%" : "") + escaped + "%");
+            } else if (ids.isEmpty()) {
+                return new UserSearchPage(List.of(), 0, page, size);
+            } else {
+                conditions.add("u.id IN :ids");
+                parameters.put("ids", ids);
+            }
+        }
+        if (role != null && !role.isBlank()) {
+            conditions.add("u.role = :role");
+            parameters.put("role", role);
+        }
+        if (minCoins != null) {
+            conditions.add("u.limCoins >= :minCoins");
+            parameters.put("minCoins", minCoins);
+        }
+        if (maxCoins != null) {
+            conditions.add("u.limCoins <= :maxCoins");
+            parameters.put("maxCoins", maxCoins);
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        TypedQuery<Long> count = em.createQuery("SELECT COUNT(u) FROM User u" + where, Long.class);
+        TypedQuery<UserSummaryView> rows = em.createQuery("SELECT new com.example.user.UserSummaryView(u.id, u.username, u.limCoins, u.role)"
+                        + " FROM User u" + where + " ORDER BY " + sortColumn + (descending ? " DESC" : "")
+                        + (sortColumn.equals("u.id") ? "" : ", u.id"), UserSummaryView.class)
+                .setFirstResult((int) offset)
+                .setMaxResults(size);
+        parameters.forEach((name, value) -> {
+            count.setParameter(name, value);
+            rows.setParameter(name, value);
+        });
+        long total = count.getSingleResult();
+        return new UserSearchPage(total <= offset ? List.of() : rows.getResultList(), total, page, size);
+    }
+
+    // Summaries of the given users, in the given order; users deleted in the meantime are left out
+    private List<UserSummaryView> summaries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserSummaryView> byId = new LinkedHashMap<>();
+        for (UserSummaryView summary : em.createQuery(
+                        "SELECT new com.example.user.UserSummaryView(u.id, u.username, u.limCoins, u.role)"
+                                + " FROM User u WHERE u.id IN :ids", UserSummaryView.class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            byId.put(summary.id(), summary);
+        }
+        List<UserSummaryView> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserSummaryView summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+
+    public CoinEconomyStats.Snapshot getEconomyStats() {
+        return economyStats.snapshot();
+    }
+
+    // Hit/miss/put counts for each second-level cache region (User and its collections)
+    public Map<String, Map<String, Long>> getCacheStatistics() {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Long>> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hits", stats.getHitCount());
+            values.put("misses", stats.getMissCount());
+            values.put("puts", stats.getPutCount());
+            values.put("elements", stats.getElementCountInMemory());
+            regions.put(region, values);
+        }
+        return regions;
     }
 }
@@ -0,0 +1,200 @@
+package com.example.user;
+
+import com.example.utils.HierarchicalTimingWheel;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.hibernate.Cache;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops closed auctions from users' active lists. Every auction a user bids on
+ * is put on a timing wheel at its expiry; when it fires, the auction is looked
+ * up on the Enchère service and, if closed, removed from every user's
+ * active_encheres in one bulk statement and their cache entries evicted, and
+ * each participant's UserBidStats is updated in the same transaction. Auctions
+ * still open past their expiry are checked again after
+ * user.auctions.recheck-interval.
+ */
+@ApplicationScoped
+public class AuctionReconciler {
+
+    private static final Logger LOG = Logger.getLogger(AuctionReconciler.class);
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    @RestClient
+    EnchereRestClient enchereClient;
+
+    @Inject
+    CoinLedger coinLedger;
+
+    @ConfigProperty(name = "user.auctions.recheck-interval", defaultValue = "30s")
+    Duration recheckInterval;
+
+    @ConfigProperty(name = "user.auctions.max-per-tick", defaultValue = "200")
+    int maxPerTick;
+
+    private final HierarchicalTimingWheel<Long> wheel =
+            new HierarchicalTimingWheel<>(1000, 64, 4, System.currentTimeMillis());
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+
+    // Auctions already in users' lists are checked right away after a restart
+    void onStart(@Observes StartupEvent event) {
+        List<Long> ids = QuarkusTransaction.requiringNew().call(() -> em.createQuery(
+                "SELECT DISTINCT e FROM User u JOIN u.encheres e", Long.class).getResultList());
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            if (tracked.add(id)) {
+                wheel.schedule(id, now);
+            }
+        }
+    }
+
+    // Starts tracking an auction; a null expiry means "look it up on the next tick"
+    public void track(Long enchereId, LocalDateTime dateExpiration) {
+        if (tracked.add(enchereId)) {
+            wheel.schedule(enchereId, dateExpiration == null
+                    ? System.currentTimeMillis()
+                    : dateExpiration.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    @Scheduled(every = "${user.auctions.tick:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void tick() {
+        long now = System.currentTimeMillis();
+        List<Long> due = wheel.advance(now);
+        if (due.isEmpty()) {
+            return;
+        }
+        // Closed auction id -> its final state, or null when the Enchère service no longer knows it
+        Map<Long, Enchere> closed = new HashMap<>();
+        for (int i = 0; i < due.size(); i++) {
+            Long enchereId = due.get(i);
+            if (i >= maxPerTick) {
+                // Spread a large backlog over the following ticks
+                wheel.schedule(enchereId, now + 1000L * (1 + (i - maxPerTick) / maxPerTick));
+                continue;
+            }
+            Enchere enchere;
+            try {
+                enchere = enchereClient.getEncherebyId(enchereId);
+            } catch (WebApplicationException e) {
+                if (e.getResponse().getStatus() == 404) {
+                    closed.put(enchereId, null);
+                } else {
+                    wheel.schedule(enchereId, now + recheckInterval.toMillis());
+                }
+                continue;
+            } catch (RuntimeException e) {
+                LOG.debugf(e, "Could not look up auction %d, will retry", enchereId);
+                wheel.schedule(enchereId, now + recheckInterval.toMillis());
+                continue;
+            }
+            if (enchere == null || isClosed(enchere.getStatus())) {
+                closed.put(enchereId, enchere);
+            } else {
+                long expiry = enchere.getDateExpiration() == null ? 0
+                        : enchere.getDateExpiration().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                wheel.schedule(enchereId, Math.max(expiry, now + recheckInterval.toMillis()));
+            }
+        }
+        if (!closed.isEmpty()) {
+            close(closed);
+        }
+    }
+
+    private void close(Map<Long, Enchere> encheres) {
+        List<Long> enchereIds = new ArrayList<>(encheres.keySet());
+        Set<Long> userIds = QuarkusTransaction.requiringNew().call(() -> {
+            @SuppressWarnings("unchecked")
+            List<Object[]> participants = em.createNativeQuery(
+                            "SELECT \"user-id\", encheres FROM active_encheres WHERE encheres IN (:ids)")
+                    .setParameter("ids", enchereIds)
+                    .getResultList();
+            Set<Long> affected = new HashSet<>();
+            for (Object[] row : participants) {
+                affected.add(((Number) row[0]).longValue());
+            }
+            if (!affected.isEmpty()) {
+                // Bump versions so in-flight updates of these users retry against the new list
+                em.createQuery("UPDATE User u SET u.version = u.version + 1 WHERE u.id IN :userIds")
+                        .setParameter("userIds", affected)
+                        .executeUpdate();
+                em.createNativeQuery("DELETE FROM active_encheres WHERE encheres IN (:ids)")
+                        .unwrap(NativeQuery.class)
+                        .addSynchronizedQuerySpace("active_encheres")
+                        .setParameter("ids", enchereIds)
+                        .executeUpdate();
+                recordResults(participants, affected, encheres);
+            }
+            return affected;
+        });
+        Cache cache = em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        for (Long userId : userIds) {
+            cache.evictEntityData(User.class, userId);
+            cache.evictCollectionData(User.class.getName() + ".encheres", userId);
+        }
+        for (Long enchereId : enchereIds) {
+            coinLedger.releaseAuction(enchereId);
+            tracked.remove(enchereId);
+        }
+        LOG.debugf("Closed %d auctions for %d users", enchereIds.size(), userIds.size());
+    }
+
+    // Same transaction as the delete, so each participation is counted exactly once
+    private void recordResults(List<Object[]> participants, Set<Long> userIds, Map<Long, Enchere> encheres) {
+        Map<Long, UserBidStats> stats = new HashMap<>();
+        for (UserBidStats existing : em.createQuery(
+                        "SELECT s FROM UserBidStats s WHERE s.userId IN :userIds", UserBidStats.class)
+                .setParameter("userIds", userIds)
+                .getResultList()) {
+            stats.put(existing.getUserId(), existing);
+        }
+        for (Object[] row : participants) {
+            Long userId = ((Number) row[0]).longValue();
+            Enchere enchere = encheres.get(((Number) row[1]).longValue());
+            UserBidStats userStats = stats.computeIfAbsent(userId, id -> {
+                UserBidStats created = new UserBidStats(id);
+                em.persist(created);
+                return created;
+            });
+            boolean won = enchere != null && userId.equals(enchere.getHighestBidderId());
+            userStats.recordClosed(won, won ? enchere.getHighestBid() : 0);
+        }
+    }
+
+    static boolean isClosed(String status) {
+        if (status == null) {
+            return false;
+        }
+        String normalized = Normalizer.normalize(status, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return normalized.startsWith("clotur") || normalized.startsWith("closed")
+                || normalized.startsWith("termin") || normalized.startsWith("expir");
+    }
+}
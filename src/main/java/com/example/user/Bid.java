@@ -2,7 +2,7 @@ package com.example.user;
 
 
 
-import jakarta.json.bind.annotation.JsonbTransient;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDateTime;
 
@@ -13,7 +13,8 @@ public class Bid {
     private Long BIDid;
 
 
-    @JsonbTransient
+    // Back-reference to the auction holding this bid; serializing it would loop through Enchere.bids
+    @JsonIgnore
     private Enchere enchere;
 
     private Long userId;
@@ -0,0 +1,114 @@
+package com.example.user;
+
+import com.example.user.Exception.TooManyRequestsException;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializes bids per auction. Bids are sharded by enchereId onto a fixed set
+ * of bounded queues, each drained by a single thread, so bids on the same
+ * auction reach the Enchère service one at a time and in arrival order while
+ * other auctions proceed on the other shards. A full queue rejects the bid
+ * (429) instead of piling up work.
+ */
+@ApplicationScoped
+public class BidDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(BidDispatcher.class);
+
+    @Inject
+    UserService userService;
+
+    @ConfigProperty(name = "user.bids.shards", defaultValue = "8")
+    int shardCount;
+
+    @ConfigProperty(name = "user.bids.queue-capacity", defaultValue = "1000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "user.bids.ticket-ttl", defaultValue = "10M")
+    Duration ticketTtl;
+
+    private List<BlockingQueue<BidTicket>> queues;
+    private Thread[] consumers;
+    private final Map<String, BidTicket> tickets = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent event) {
+        queues = new ArrayList<>(shardCount);
+        consumers = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<BidTicket> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            consumers[i] = Thread.ofPlatform().daemon().name("bid-shard-" + i).start(() -> consume(queue));
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (consumers != null) {
+            for (Thread consumer : consumers) {
+                consumer.interrupt();
+            }
+        }
+    }
+
+    public BidTicket submit(Long userId, Long enchereId, double amount) {
+        BidTicket ticket = new BidTicket(userId, enchereId, amount);
+        tickets.put(ticket.getId(), ticket);
+        if (!queues.get(shardOf(enchereId)).offer(ticket)) {
+            tickets.remove(ticket.getId());
+            throw new TooManyRequestsException("Too many pending bids on auction " + enchereId + ", please retry.", 1);
+        }
+        return ticket;
+    }
+
+    public BidTicket getTicket(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    @Scheduled(every = "60s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void expireTickets() {
+        Instant cutoff = Instant.now().minus(ticketTtl);
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.getCompletedAt().isBefore(cutoff));
+    }
+
+    private int shardOf(Long enchereId) {
+        return Math.floorMod(Long.hashCode(enchereId), queues.size());
+    }
+
+    private void consume(BlockingQueue<BidTicket> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            BidTicket ticket;
+            try {
+                ticket = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            ticket.processing();
+            try {
+                userService.placeBid(ticket.getUserId(), ticket.getEnchereId(), ticket.getAmount());
+                ticket.complete(true, "Bid placed successfully!");
+            } catch (Exception e) {
+                LOG.debugf(e, "Bid %s on auction %d rejected", ticket.getId(), ticket.getEnchereId());
+                ticket.complete(false, e.getMessage());
+            } catch (Throwable e) {
+                // An Error must not kill the shard: every later bid on its auctions would wait forever
+                LOG.errorf(e, "Bid %s on auction %d failed", ticket.getId(), ticket.getEnchereId());
+                ticket.complete(false, "Bid could not be processed, please retry.");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.user;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// A bid queued in the BidDispatcher, polled through GET /users/bid-tickets/{id}
+public class BidTicket {
+
+    public enum Status { QUEUED, PROCESSING, ACCEPTED, REJECTED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final Long enchereId;
+    private final double amount;
+    private final Instant createdAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile Instant completedAt;
+    private final CompletableFuture<BidTicket> completion = new CompletableFuture<>();
+
+    public BidTicket(Long userId, Long enchereId, double amount) {
+        this.userId = userId;
+        this.enchereId = enchereId;
+        this.amount = amount;
+    }
+
+    void processing() {
+        status = Status.PROCESSING;
+    }
+
+    void complete(boolean accepted, String message) {
+        this.status = accepted ? Status.ACCEPTED : Status.REJECTED;
+        this.message = message;
+        this.completedAt = Instant.now();
+        completion.complete(this);
+    }
+
+    // Blocks until the bid has been processed or the timeout expires
+    BidTicket await(long timeout, TimeUnit unit) throws Exception {
+        return completion.get(timeout, unit);
+    }
+
+    boolean isDone() {
+        return completion.isDone();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getEnchereId() {
+        return enchereId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
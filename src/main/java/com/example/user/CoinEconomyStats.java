@@ -0,0 +1,199 @@
+package com.example.user;
+
+import com.example.utils.AfterCommit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coins in circulation, balance histogram and users per role, maintained by
+ * the paths that create, delete or change the balance or role of a user
+ * (applied once their transaction commits) so that reading them costs no
+ * query. Every user.economy.reconcile-interval the counters are compared
+ * with aggregates over the users table and corrected.
+ */
+@ApplicationScoped
+public class CoinEconomyStats {
+
+    private static final Logger LOG = Logger.getLogger(CoinEconomyStats.class);
+
+    public record Bucket(Integer from, Integer below, long users) {
+    }
+
+    public record Snapshot(long totalCoins, long users, Map<String, Long> usersByRole, List<Bucket> balances,
+                           Instant reconciledAt, long lastCoinDrift, long lastUserDrift) {
+    }
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private final int[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder totalCoins = new LongAdder();
+    private final Map<String, LongAdder> usersByRole = new ConcurrentHashMap<>();
+    private volatile Instant reconciledAt;
+    private volatile long lastCoinDrift;
+    private volatile long lastUserDrift;
+
+    // Bucket i holds balances below bounds[i] (and at least bounds[i - 1]); the last one everything above
+    public CoinEconomyStats(@ConfigProperty(name = "user.economy.buckets",
+            defaultValue = "100,500,1000,2000,5000,10000,50000") List<Integer> bounds) {
+        this.bounds = bounds.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        this.buckets = new LongAdder[this.bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        reconcile();
+    }
+
+    public void userCreated(String role, int limCoins) {
+        afterCommit.run(() -> {
+            usersByRole.computeIfAbsent(role, key -> new LongAdder()).increment();
+            totalCoins.add(limCoins);
+            buckets[bucketOf(limCoins)].increment();
+        });
+    }
+
+    public void userDeleted(String role, int limCoins) {
+        afterCommit.run(() -> {
+            usersByRole.computeIfAbsent(role, key -> new LongAdder()).decrement();
+            totalCoins.add(-limCoins);
+            buckets[bucketOf(limCoins)].decrement();
+        });
+    }
+
+    public void balanceChanged(int before, int after) {
+        if (before == after) {
+            return;
+        }
+        afterCommit.run(() -> {
+            totalCoins.add(after - before);
+            int from = bucketOf(before);
+            int to = bucketOf(after);
+            if (from != to) {
+                buckets[from].decrement();
+                buckets[to].increment();
+            }
+        });
+    }
+
+    public void roleChanged(String before, String after) {
+        if (before == null ? after == null : before.equals(after)) {
+            return;
+        }
+        afterCommit.run(() -> {
+            usersByRole.computeIfAbsent(before, key -> new LongAdder()).decrement();
+            usersByRole.computeIfAbsent(after, key -> new LongAdder()).increment();
+        });
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> roles = new TreeMap<>();
+        long users = 0;
+        for (Map.Entry<String, LongAdder> entry : usersByRole.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count != 0) {
+                roles.put(entry.getKey(), count);
+                users += count;
+            }
+        }
+        List<Bucket> balances = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            balances.add(new Bucket(i == 0 ? null : bounds[i - 1], i < bounds.length ? bounds[i] : null, buckets[i].sum()));
+        }
+        return new Snapshot(totalCoins.sum(), users, roles, balances, reconciledAt, lastCoinDrift, lastUserDrift);
+    }
+
+    /**
+     * Brings the counters in line with the users table. Changes committed
+     * while the aggregates run may be counted twice or not at all; the next
+     * run corrects that.
+     */
+    @Scheduled(every = "${user.economy.reconcile-interval:5m}", delayed = "${user.economy.reconcile-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconcile() {
+        StringBuilder bucketCase = new StringBuilder("CASE");
+        for (int i = 0; i < bounds.length; i++) {
+            bucketCase.append(" WHEN u.limCoins < ").append(bounds[i]).append(" THEN ").append(i);
+        }
+        bucketCase.append(" ELSE ").append(bounds.length).append(" END");
+
+        List<Object[]> byRole = new ArrayList<>();
+        List<Object[]> byBucket = new ArrayList<>();
+        QuarkusTransaction.requiringNew().run(() -> {
+            byRole.addAll(em.createQuery(
+                    "SELECT u.role, COUNT(u), COALESCE(SUM(u.limCoins), 0) FROM User u GROUP BY u.role", Object[].class)
+                    .getResultList());
+            byBucket.addAll(em.createQuery("SELECT " + bucketCase + ", COUNT(u) FROM User u GROUP BY " + bucketCase,
+                    Object[].class).getResultList());
+        });
+
+        long coins = 0;
+        long users = 0;
+        Map<String, Long> roles = new LinkedHashMap<>();
+        for (Object[] row : byRole) {
+            roles.put((String) row[0], ((Number) row[1]).longValue());
+            users += ((Number) row[1]).longValue();
+            coins += ((Number) row[2]).longValue();
+        }
+        long[] counts = new long[buckets.length];
+        for (Object[] row : byBucket) {
+            counts[((Number) row[0]).intValue()] = ((Number) row[1]).longValue();
+        }
+
+        // add(expected - current) rather than reset(), so increments racing with the correction are kept
+        long coinDrift = totalCoins.sum() - coins;
+        totalCoins.add(-coinDrift);
+        long userDrift = 0;
+        for (Map.Entry<String, LongAdder> entry : usersByRole.entrySet()) {
+            long drift = entry.getValue().sum() - roles.getOrDefault(entry.getKey(), 0L);
+            entry.getValue().add(-drift);
+            userDrift += Math.abs(drift);
+        }
+        for (Map.Entry<String, Long> entry : roles.entrySet()) {
+            if (!usersByRole.containsKey(entry.getKey())) {
+                usersByRole.computeIfAbsent(entry.getKey(), key -> new LongAdder()).add(entry.getValue());
+                userDrift += entry.getValue();
+            }
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i].add(counts[i] - buckets[i].sum());
+        }
+        if (reconciledAt != null && (coinDrift != 0 || userDrift != 0)) {
+            LOG.infof("Coin economy counters were off by %d coins and %d users, corrected", coinDrift, userDrift);
+        }
+        lastCoinDrift = coinDrift;
+        lastUserDrift = userDrift;
+        reconciledAt = Instant.now();
+    }
+
+    private int bucketOf(int limCoins) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (limCoins < bounds[i]) {
+                return i;
+            }
+        }
+        return bounds.length;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.user;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+// Coins a user has committed to an auction; persisted in batches by CoinLedger
+@Entity
+@Table(name = "coin_holds", indexes = @Index(name = "idx_coin_holds_enchere", columnList = "enchereId"))
+public class CoinHold {
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private Long userId;
+        private Long enchereId;
+
+        public Key() {
+        }
+
+        public Key(Long userId, Long enchereId) {
+            this.userId = userId;
+            this.enchereId = enchereId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getEnchereId() {
+            return enchereId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(userId, key.userId) && Objects.equals(enchereId, key.enchereId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, enchereId);
+        }
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long amount;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public CoinHold() {
+    }
+
+    public CoinHold(Key id, long amount) {
+        this.id = id;
+        this.amount = amount;
+        this.updatedAt = Instant.now();
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+        this.updatedAt = Instant.now();
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
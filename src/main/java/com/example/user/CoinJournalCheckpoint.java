@@ -0,0 +1,44 @@
+package com.example.user;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Last coin journal record applied to the users table, per node; committed with the balances it covers
+@Entity
+@Table(name = "coin_journal_checkpoints")
+public class CoinJournalCheckpoint {
+
+    @Id
+    private String node;
+
+    @Column(nullable = false)
+    private long sequence;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public CoinJournalCheckpoint() {
+    }
+
+    public CoinJournalCheckpoint(String node) {
+        this.node = node;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void advance(long sequence) {
+        this.sequence = Math.max(this.sequence, sequence);
+        this.updatedAt = Instant.now();
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.user;
+
+import com.example.utils.AfterCommit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory escrow of LimCoins committed to auctions. Each user's holds and
+ * their total live in an Account that is locked on its own, so reserving is
+ * O(1), never locks the users row and does not contend across users. Debits
+ * are checked under the same lock and count against the balance until their
+ * transaction ends, so a bid and a debit cannot both spend the same coins.
+ * Changed holds are written to coin_holds in batches by {@link #flush()} and
+ * reloaded at startup. A crash loses up to one user.escrow.flush-interval of
+ * changes: a hold placed in that window is gone after the restart, freeing
+ * coins that are still promised to a bid, and a hold released in that window
+ * comes back until its auction closes.
+ */
+@ApplicationScoped
+public class CoinLedger {
+
+    private static final Logger LOG = Logger.getLogger(CoinLedger.class);
+
+    private static final class Account {
+        long held;
+        // Debits whose transaction has not ended yet
+        long debiting;
+        final Map<Long, Long> holds = new HashMap<>();
+    }
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> holdersByEnchere = new ConcurrentHashMap<>();
+    private final Set<CoinHold.Key> dirty = ConcurrentHashMap.newKeySet();
+
+    void onStart(@Observes StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (CoinHold hold : em.createQuery("SELECT h FROM CoinHold h", CoinHold.class).getResultList()) {
+                Long userId = hold.getId().getUserId();
+                Account account = accounts.computeIfAbsent(userId, key -> new Account());
+                set(account, userId, hold.getId().getEnchereId(), hold.getAmount());
+            }
+        });
+        dirty.clear();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /**
+     * Sets the user's hold on an auction to {@code amount} if the user's other
+     * holds, pending debits and this hold fit in the committed balance, which
+     * is read while the account is locked. Returns the previous hold on that
+     * auction (0 if none), or -1 if the coins are not available.
+     */
+    public long reserve(Long userId, Long enchereId, long amount, LongSupplier balance) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("A hold must be greater than 0.");
+        }
+        Account account = accounts.computeIfAbsent(userId, key -> new Account());
+        synchronized (account) {
+            long previous = account.holds.getOrDefault(enchereId, 0L);
+            if (account.held - previous + account.debiting + amount > balance.getAsLong()) {
+                return -1;
+            }
+            set(account, userId, enchereId, amount);
+            return previous;
+        }
+    }
+
+    /**
+     * Accepts a debit of {@code amount} from {@code balance} (the balance the
+     * caller's transaction read) if it leaves the holds and other pending
+     * debits covered. An accepted debit counts as pending until the caller's
+     * transaction ends; once committed, the lower balance takes its place.
+     */
+    public boolean debit(Long userId, long amount, long balance) {
+        Account account = accounts.computeIfAbsent(userId, key -> new Account());
+        synchronized (account) {
+            if (balance - account.held - account.debiting < amount) {
+                return false;
+            }
+            account.debiting += amount;
+        }
+        afterCommit.always(() -> {
+            synchronized (account) {
+                account.debiting -= amount;
+            }
+        });
+        return true;
+    }
+
+    // Puts back the hold returned by reserve() when the bid could not be placed
+    public void restore(Long userId, Long enchereId, long previous) {
+        Account account = accounts.computeIfAbsent(userId, key -> new Account());
+        synchronized (account) {
+            set(account, userId, enchereId, previous);
+        }
+    }
+
+    public void release(Long userId, Long enchereId) {
+        restore(userId, enchereId, 0);
+    }
+
+    // Releases every user's hold on a closed auction
+    public void releaseAuction(Long enchereId) {
+        Set<Long> holders = holdersByEnchere.remove(enchereId);
+        if (holders != null) {
+            for (Long userId : holders) {
+                release(userId, enchereId);
+            }
+        }
+    }
+
+    public long held(Long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return 0;
+        }
+        synchronized (account) {
+            return account.held;
+        }
+    }
+
+    public long heldOn(Long userId, Long enchereId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return 0;
+        }
+        synchronized (account) {
+            return account.holds.getOrDefault(enchereId, 0L);
+        }
+    }
+
+    public long available(Long userId, long balance) {
+        return balance - held(userId);
+    }
+
+    @Scheduled(every = "${user.escrow.flush-interval:2s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<CoinHold.Key> batch = new ArrayList<>(dirty);
+        dirty.removeAll(batch);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (CoinHold.Key key : batch) {
+                    long amount = heldOn(key.getUserId(), key.getEnchereId());
+                    CoinHold hold = em.find(CoinHold.class, key);
+                    if (amount == 0) {
+                        if (hold != null) {
+                            em.remove(hold);
+                        }
+                    } else if (hold == null) {
+                        em.persist(new CoinHold(key, amount));
+                    } else if (hold.getAmount() != amount) {
+                        hold.setAmount(amount);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            dirty.addAll(batch);
+            LOG.warnf(e, "Could not persist %d coin holds, will retry", batch.size());
+        }
+    }
+
+    private void set(Account account, Long userId, Long enchereId, long amount) {
+        account.held += amount - account.holds.getOrDefault(enchereId, 0L);
+        if (amount == 0) {
+            account.holds.remove(enchereId);
+            Set<Long> holders = holdersByEnchere.get(enchereId);
+            if (holders != null) {
+                holders.remove(userId);
+            }
+        } else {
+            account.holds.put(enchereId, amount);
+            holdersByEnchere.computeIfAbsent(enchereId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        dirty.add(new CoinHold.Key(userId, enchereId));
+    }
+}
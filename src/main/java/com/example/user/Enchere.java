@@ -4,7 +4,6 @@ import java.beans.Transient;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import jakarta.json.bind.annotation.JsonbTransient;
 
 public class Enchere  {
 
@@ -18,7 +17,6 @@ public class Enchere  {
     private LocalDateTime dateExpiration ;//date d'expiration
     private String Status; //cloturé actif..
 
-    @JsonbTransient
     private List<Bid> bids;
 
     public Enchere() {
@@ -34,6 +32,14 @@ public class Enchere  {
         this.Status = Status;
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Long getUserId() {
         return highestBidderId;
     }
@@ -6,13 +6,20 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.*;
 
 
+import com.example.utils.CborAcceptFilter;
+import com.example.utils.CborProvider;
+import com.example.utils.TimedSpan;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.List;
 
+@TimedSpan
 @RegisterRestClient(baseUri = "http://localhost:8085/Encheres") // URL de la ressource EnchereResource
+@RegisterProvider(CborProvider.class)
+@RegisterProvider(CborAcceptFilter.class)
 @Path("/")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -58,5 +65,3 @@ public interface EnchereRestClient {
     @Path("/{enchereid}/bids/{userid}")
     Response enleverBid(@PathParam("enchereid") Long enchereid, @PathParam("userid") Long userid);
 }
-
-
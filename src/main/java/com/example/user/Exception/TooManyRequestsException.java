@@ -0,0 +1,14 @@
+package com.example.user.Exception;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+public class TooManyRequestsException extends WebApplicationException {
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Math.max(1, retryAfterSeconds))
+                .entity(message)
+                .build());
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.user;
+
+import com.example.utils.CoinJournal;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind for the accounts listed in user.hot-accounts.ids, which receive
+ * too many credits to take a row lock for each. A credit is appended to the
+ * local CoinJournal, forced to disk (group commit) and added to the account's
+ * LongAdder; the caller returns without touching the database. Every
+ * user.hot-accounts.flush-interval, or after user.hot-accounts.flush-ops
+ * credits, the sums are applied as one update per account in a transaction that
+ * also records the journal sequence they cover. On startup, journal records
+ * past that checkpoint are applied before anything else. Balances of these
+ * accounts in the database therefore trail the credits by up to one flush.
+ */
+@ApplicationScoped
+public class HotAccountWriteBehind {
+
+    private static final Logger LOG = Logger.getLogger(HotAccountWriteBehind.class);
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserService userService;
+
+    @ConfigProperty(name = "user.hot-accounts.ids")
+    Optional<List<Long>> hotAccountIds;
+
+    @ConfigProperty(name = "user.hot-accounts.flush-interval", defaultValue = "100ms")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "user.hot-accounts.flush-ops", defaultValue = "1000")
+    long flushOps;
+
+    @ConfigProperty(name = "user.hot-accounts.journal-dir", defaultValue = "coin-journal")
+    String journalDir;
+
+    @ConfigProperty(name = "user.hot-accounts.segment-bytes", defaultValue = "16777216")
+    long segmentBytes;
+
+    @ConfigProperty(name = "user.hot-accounts.fsync", defaultValue = "true")
+    boolean fsync;
+
+    // Checkpoint key; each node journals and checkpoints its own credits, so it must be unique and stable per journal
+    @ConfigProperty(name = "user.hot-accounts.node")
+    Optional<String> nodeName;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final LongAdder opsSinceFlush = new LongAdder();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    // Credits hold the read side while journaling and adding; a flush takes the write side to cut a consistent batch
+    private final ReentrantReadWriteLock cut = new ReentrantReadWriteLock();
+    private String node;
+    private CoinJournal journal;
+    private ScheduledExecutorService flusher;
+
+    void onStart(@Observes StartupEvent event) {
+        if (hotAccountIds.isEmpty() || hotAccountIds.get().isEmpty()) {
+            return;
+        }
+        // Two nodes sharing a checkpoint would skip each other's unapplied credits on replay
+        node = nodeName.filter(name -> !name.isBlank()).orElseThrow(() -> new IllegalStateException(
+                "user.hot-accounts.node must be set to a name unique to this node when hot accounts are configured."));
+        long checkpoint = QuarkusTransaction.requiringNew().call(() -> {
+            CoinJournalCheckpoint stored = em.find(CoinJournalCheckpoint.class, node);
+            return stored == null ? 0L : stored.getSequence();
+        });
+        journal = new CoinJournal(Path.of(journalDir), segmentBytes, fsync);
+        List<CoinJournal.Entry> unapplied = journal.open(checkpoint);
+        if (!unapplied.isEmpty()) {
+            Map<Long, Long> amounts = new HashMap<>();
+            for (CoinJournal.Entry entry : unapplied) {
+                amounts.merge(entry.account(), entry.amount(), Long::sum);
+            }
+            long upTo = unapplied.get(unapplied.size() - 1).sequence();
+            userService.applyBatchedCredits(amounts, upTo);
+            LOG.infof("Replayed %d journaled credits for %d hot accounts", unapplied.size(), amounts.size());
+        }
+        journal.truncate(journal.lastSequence());
+
+        for (Long id : hotAccountIds.get()) {
+            pending.put(id, new LongAdder());
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hot-account-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Own executor rather than @Scheduled, whose triggers are checked once a second
+        long intervalMs = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    public boolean isHot(Long userId) {
+        return pending.containsKey(userId);
+    }
+
+    // Credits a hot account; once this returns the credit survives a crash
+    public void credit(Long userId, int amount) {
+        long sequence;
+        cut.readLock().lock();
+        try {
+            sequence = journal.append(userId, amount);
+            pending.get(userId).add(amount);
+        } finally {
+            cut.readLock().unlock();
+        }
+        journal.awaitDurable(sequence);
+        opsSinceFlush.increment();
+        if (opsSinceFlush.sum() >= flushOps && !flusher.isShutdown() && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::scheduledFlush);
+        }
+    }
+
+    // Called by UserService.applyBatchedCredits, in the transaction that applies the credits
+    void checkpoint(long sequence) {
+        CoinJournalCheckpoint checkpoint = em.find(CoinJournalCheckpoint.class, node);
+        if (checkpoint == null) {
+            checkpoint = new CoinJournalCheckpoint(node);
+            checkpoint.advance(sequence);
+            em.persist(checkpoint);
+        } else {
+            checkpoint.advance(sequence);
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Could not flush hot account credits, will retry");
+        }
+    }
+
+    private synchronized void flush() {
+        flushQueued.set(false);
+        Map<Long, Long> amounts = new HashMap<>();
+        long upTo;
+        cut.writeLock().lock();
+        try {
+            for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+                long amount = entry.getValue().sumThenReset();
+                if (amount != 0) {
+                    amounts.put(entry.getKey(), amount);
+                }
+            }
+            upTo = journal.lastSequence();
+            opsSinceFlush.reset();
+        } finally {
+            cut.writeLock().unlock();
+        }
+        if (amounts.isEmpty()) {
+            return;
+        }
+        try {
+            userService.applyBatchedCredits(amounts, upTo);
+        } catch (RuntimeException e) {
+            // Still journaled; put the sums back so the next flush carries them
+            amounts.forEach((userId, amount) -> pending.get(userId).add(amount));
+            throw e;
+        }
+        journal.truncate(upTo);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.user;
+
+import com.example.user.Exception.TooManyRequestsException;
+import com.example.utils.StripedTokenBucket;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+// Rejects login attempts before any BCrypt work is done: per-client-IP and
+// per-username token buckets, plus a cap on logins being checked at once.
+@ApplicationScoped
+public class LoginThrottle {
+
+    private final StripedTokenBucket byUsername;
+    private final StripedTokenBucket byClientIp;
+    private final Semaphore inFlight;
+
+    public LoginThrottle(
+            @ConfigProperty(name = "user.login.slots", defaultValue = "65536") int slots,
+            @ConfigProperty(name = "user.login.per-user.capacity", defaultValue = "5") int userCapacity,
+            @ConfigProperty(name = "user.login.per-user.refill-per-minute", defaultValue = "5") double userRefill,
+            @ConfigProperty(name = "user.login.per-ip.capacity", defaultValue = "20") int ipCapacity,
+            @ConfigProperty(name = "user.login.per-ip.refill-per-minute", defaultValue = "60") double ipRefill,
+            @ConfigProperty(name = "user.login.max-concurrent", defaultValue = "0") int maxConcurrent) {
+        this.byUsername = new StripedTokenBucket(slots, userCapacity, userRefill / 60.0);
+        this.byClientIp = new StripedTokenBucket(slots, ipCapacity, ipRefill / 60.0);
+        // BCrypt is CPU bound: by default allow one in-flight check per core
+        this.inFlight = new Semaphore(maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Must be paired with release() once the password check is done
+    public void acquire(String username, String clientIp) {
+        String user = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+        // Both buckets are checked before either is charged, so an attempt one of them rejects
+        // does not use up the other's budget
+        if (!byClientIp.hasToken(clientIp)) {
+            throw new TooManyRequestsException("Too many login attempts from this address.",
+                    byClientIp.secondsUntilAvailable(clientIp));
+        }
+        if (!byUsername.hasToken(user)) {
+            throw new TooManyRequestsException("Too many login attempts for this user.",
+                    byUsername.secondsUntilAvailable(user));
+        }
+        if (!byClientIp.tryAcquire(clientIp)) {
+            throw new TooManyRequestsException("Too many login attempts from this address.",
+                    byClientIp.secondsUntilAvailable(clientIp));
+        }
+        // Taken by a concurrent attempt since the check
+        if (!byUsername.tryAcquire(user)) {
+            byClientIp.refund(clientIp);
+            throw new TooManyRequestsException("Too many login attempts for this user.",
+                    byUsername.secondsUntilAvailable(user));
+        }
+        if (!inFlight.tryAcquire()) {
+            throw new TooManyRequestsException("Login service is busy, please retry.", 1);
+        }
+    }
+
+    public void release() {
+        inFlight.release();
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.user;
+
+// A user's coins plus the valuation of their Pokémon; row of the net worth leaderboard
+public record NetWorthView(Long id, String username, Integer limCoins, Double pokemonValue, Double netWorth) {
+}
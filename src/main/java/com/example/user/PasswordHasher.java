@@ -0,0 +1,19 @@
+package com.example.user;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.mindrot.jbcrypt.BCrypt;
+
+@ApplicationScoped
+public class PasswordHasher {
+
+    @Timed(value = "user.bcrypt", extraTags = {"operation", "hash"}, description = "BCrypt password hashing")
+    public String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt());
+    }
+
+    @Timed(value = "user.bcrypt", extraTags = {"operation", "check"}, description = "BCrypt password verification")
+    public boolean matches(String password, String hashed) {
+        return BCrypt.checkpw(password, hashed);
+    }
+}
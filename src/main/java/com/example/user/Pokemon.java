@@ -1,7 +1,6 @@
 package com.example.user;
 
 
-import jakarta.json.bind.annotation.JsonbTransient;
 
 import java.util.HashMap;
 import java.util.List;
@@ -22,15 +21,12 @@ public class Pokemon {
 
 
 
-    @JsonbTransient
     private List<String> types;
 
 
-    @JsonbTransient
     private Map<String, Integer> stats;
 
 
-    @JsonbTransient
     private Map<Long, Integer> historique_encheres = new HashMap<>(); // On stocke id_utilisateur et montant
 
 
@@ -6,6 +6,10 @@ import jakarta.ws.rs.*;
 
 import jakarta.ws.rs.*;
 
+import com.example.utils.CborAcceptFilter;
+import com.example.utils.CborProvider;
+import com.example.utils.TimedSpan;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -13,7 +17,10 @@ import jakarta.ws.rs.core.Response;
 
 import java.util.List;
 
+@TimedSpan
 @RegisterRestClient(configKey = "pokemon-service")
+@RegisterProvider(CborProvider.class)
+@RegisterProvider(CborAcceptFilter.class)
 @Path("/pokemons")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -0,0 +1,47 @@
+package com.example.user;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Last known valeurReelle of a Pokémon, refreshed from the Pokémon service by PortfolioValuer
+@Entity
+@Table(name = "pokemon_valuations")
+public class PokemonValuation {
+
+    @Id
+    @Column(name = "pokemon_id")
+    private Long pokemonId;
+
+    @Column(name = "valeur_reelle", nullable = false)
+    private double valeurReelle;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+
+    public PokemonValuation() {
+    }
+
+    public PokemonValuation(Long pokemonId, double valeurReelle, Instant refreshedAt) {
+        this.pokemonId = pokemonId;
+        this.valeurReelle = valeurReelle;
+        this.refreshedAt = refreshedAt;
+    }
+
+    public Long getPokemonId() {
+        return pokemonId;
+    }
+
+    public double getValeurReelle() {
+        return valeurReelle;
+    }
+
+    void update(double valeurReelle, Instant refreshedAt) {
+        this.valeurReelle = valeurReelle;
+        this.refreshedAt = refreshedAt;
+    }
+
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.user;
+
+import com.example.user.Exception.UserNotFoundException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Values users' Pokémon without calling the Pokémon service per request.
+ * Valuations are copied from listerPokemons into pokemon_valuations every
+ * user.portfolio.refresh-interval, and each user's total is kept in
+ * user_portfolios: recomputed from that table whenever the user's holdings
+ * change, and for the holders of any Pokémon whose valuation changed or
+ * was dropped from the catalog. Pokémon not in the catalog count as 0.
+ */
+@ApplicationScoped
+public class PortfolioValuer {
+
+    private static final Logger LOG = Logger.getLogger(PortfolioValuer.class);
+
+    // Keeps IN lists well below database parameter limits
+    private static final int CHUNK = 1000;
+
+    private static final String NET_WORTH = "SELECT new com.example.user.NetWorthView(u.id, u.username, u.limCoins,"
+            + " COALESCE(p.pokemonValue, 0.0), u.limCoins + COALESCE(p.pokemonValue, 0.0))"
+            + " FROM User u LEFT JOIN UserPortfolio p ON p.userId = u.id";
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    @RestClient
+    PokemonServiceClient pokemonClient;
+
+    // Delayed so the first refresh does not race the Pokémon service (or this one) starting up
+    @Scheduled(every = "${user.portfolio.refresh-interval:10m}", delayed = "${user.portfolio.refresh-delay:15s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not refresh Pokémon valuations: %s", e.getMessage());
+        }
+    }
+
+    // Copies the catalog's valuations and returns how many changed or were removed
+    public int refresh() {
+        List<Pokemon> catalog = pokemonClient.listerPokemons();
+        Map<Long, Double> changed = QuarkusTransaction.requiringNew().call(() -> {
+            Map<Long, PokemonValuation> stored = new HashMap<>();
+            for (PokemonValuation valuation : em.createQuery(
+                    "SELECT v FROM PokemonValuation v", PokemonValuation.class).getResultList()) {
+                stored.put(valuation.getPokemonId(), valuation);
+            }
+            Instant now = Instant.now();
+            Map<Long, Double> updates = new HashMap<>();
+            Set<Long> listed = new HashSet<>();
+            for (Pokemon pokemon : catalog) {
+                if (pokemon == null || pokemon.getId() == null || !listed.add(pokemon.getId())) {
+                    continue;
+                }
+                PokemonValuation valuation = stored.get(pokemon.getId());
+                if (valuation == null) {
+                    em.persist(new PokemonValuation(pokemon.getId(), pokemon.getValeurReelle(), now));
+                } else if (valuation.getValeurReelle() != pokemon.getValeurReelle()) {
+                    valuation.update(pokemon.getValeurReelle(), now);
+                } else {
+                    continue;
+                }
+                updates.put(pokemon.getId(), pokemon.getValeurReelle());
+            }
+            // An empty catalog is more likely an outage than a wipe, so it keeps the stored valuations
+            if (!listed.isEmpty()) {
+                for (PokemonValuation valuation : stored.values()) {
+                    if (!listed.contains(valuation.getPokemonId())) {
+                        em.remove(valuation);
+                        updates.put(valuation.getPokemonId(), 0.0);
+                    }
+                }
+            }
+            em.flush();
+            List<Long> ids = new ArrayList<>(updates.keySet());
+            for (int from = 0; from < ids.size(); from += CHUNK) {
+                em.createNativeQuery("UPDATE user_portfolios p SET pokemon_value = " + holdingsValue("p.user_id")
+                                + " WHERE p.user_id IN (SELECT \"user-id\" FROM \"pokemon-user\" WHERE pokemon IN (:ids))")
+                        .setParameter("ids", ids.subList(from, Math.min(from + CHUNK, ids.size())))
+                        .executeUpdate();
+            }
+            // Users who have no row yet, e.g. holdings from before portfolios were tracked
+            em.createNativeQuery("INSERT INTO user_portfolios (user_id, pokemon_value) SELECT u.id, "
+                            + holdingsValue("u.id")
+                            + " FROM users u WHERE NOT EXISTS (SELECT 1 FROM user_portfolios p WHERE p.user_id = u.id)")
+                    .executeUpdate();
+            return updates;
+        });
+        LOG.debugf("Refreshed %d Pokémon valuations, %d changed", catalog.size(), changed.size());
+        return changed.size();
+    }
+
+    /**
+     * Recomputes the user's total from pokemon_valuations after a holdings
+     * change, in the caller's transaction. Computing it in SQL rather than
+     * adding a delta keeps it right when a refresh commits concurrently.
+     */
+    public void recompute(User user) {
+        // Writes the changed collection, and the user's version check first: of two first changes racing, the
+        // loser then fails with a retryable optimistic lock conflict instead of a duplicate key on user_portfolios
+        em.flush();
+        int updated = em.createNativeQuery("UPDATE user_portfolios SET pokemon_value = " + holdingsValue(":userId")
+                        + " WHERE user_id = :userId")
+                .setParameter("userId", user.getId())
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(UserPortfolio.class)
+                .executeUpdate();
+        if (updated == 0) {
+            em.createNativeQuery("INSERT INTO user_portfolios (user_id, pokemon_value) VALUES (:userId, "
+                            + holdingsValue(":userId") + ")")
+                    .setParameter("userId", user.getId())
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(UserPortfolio.class)
+                    .executeUpdate();
+        }
+    }
+
+    public void remove(Long userId) {
+        em.createQuery("DELETE FROM UserPortfolio p WHERE p.userId = :userId")
+                .setParameter("userId", userId)
+                .executeUpdate();
+    }
+
+    public NetWorthView netWorth(Long userId) {
+        List<NetWorthView> rows = em.createQuery(NET_WORTH + " WHERE u.id = :id", NetWorthView.class)
+                .setParameter("id", userId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            throw new UserNotFoundException("User with ID " + userId + " not found.");
+        }
+        return rows.get(0);
+    }
+
+    public List<NetWorthView> topByNetWorth(int limit) {
+        return em.createQuery(NET_WORTH + " ORDER BY u.limCoins + COALESCE(p.pokemonValue, 0.0) DESC, u.id",
+                        NetWorthView.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // SQL for the summed valuations of the Pokémon held by the user in userIdColumn
+    private static String holdingsValue(String userIdColumn) {
+        return "COALESCE((SELECT SUM(v.valeur_reelle) FROM \"pokemon-user\" pu"
+                + " JOIN pokemon_valuations v ON v.pokemon_id = pu.pokemon WHERE pu.\"user-id\" = " + userIdColumn + "), 0)";
+    }
+}
@@ -4,17 +4,29 @@ package com.example.user;
 
 
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "username"),
         @UniqueConstraint(columnNames = "email")
+}, indexes = {
+        // Admin search filters on role and coin range, and sorts by coins (also the leaderboards)
+        @Index(name = "idx_users_role_limcoins", columnList = "role, limCoins"),
+        @Index(name = "idx_users_limcoins", columnList = "limCoins"),
+        // Prefix LIKE in the admin search when the in-memory index has too many candidates
+        @Index(name = "idx_users_username_lower", columnList = "username_lower"),
+        @Index(name = "idx_users_email_lower", columnList = "email_lower")
 })
 public class User {
 
@@ -31,6 +43,17 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Lower-cased username and email computed by the database, so case-insensitive prefix searches can use an index
+    @Column(name = "username_lower", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(username))")
+    private String usernameLower;
+
+    @Column(name = "email_lower", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(email))")
+    private String emailLower;
+
+    // Accepted on register/update, never written to a response
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
@@ -40,7 +63,13 @@ public class User {
     @Column(nullable = false)
     private String role = "User";
 
+    // Bumped on every change, including collection changes; concurrent writers fail instead of overwriting
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "pokemon-user", joinColumns = @JoinColumn(name = "user-id"))
     @Column(name = "pokemon")
     private List<Long> pokemons = new ArrayList<>();
@@ -48,11 +77,13 @@ public class User {
     //liste des encheres actives
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "active_encheres", joinColumns = @JoinColumn(name = "user-id"))
     @Column(name = "encheres")
     private List<Long> encheres = new ArrayList<>();
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "encher_user", joinColumns = @JoinColumn(name = "user-id"))
     @Column(name = "encheresDeUser")
     private List<Long> encheresDeUser=new ArrayList<>();
@@ -90,6 +121,10 @@ public class User {
         this.role = role;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
 
     // Getters and Setters
     public Long getId() {
@@ -0,0 +1,8 @@
+package com.example.user;
+
+import java.util.List;
+import java.util.Map;
+
+// Response of the multi-get: found users keyed by id, in request order, and the ids that do not exist
+public record UserBatchView(Map<Long, UserDetailView> users, List<Long> missing) {
+}
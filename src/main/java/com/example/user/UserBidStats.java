@@ -0,0 +1,56 @@
+package com.example.user;
+
+import jakarta.persistence.*;
+
+// Per-user auction results, updated by AuctionReconciler when an auction closes
+@Entity
+@Table(name = "user_bid_stats")
+public class UserBidStats {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long participated;
+
+    @Column(nullable = false)
+    private long won;
+
+    @Column(nullable = false)
+    private double totalSpent;
+
+    public UserBidStats() {
+    }
+
+    public UserBidStats(Long userId) {
+        this.userId = userId;
+    }
+
+    void recordClosed(boolean wonAuction, double price) {
+        participated++;
+        if (wonAuction) {
+            won++;
+            totalSpent += price;
+        }
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getParticipated() {
+        return participated;
+    }
+
+    public long getWon() {
+        return won;
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public double getWinRate() {
+        return participated == 0 ? 0 : (double) won / participated;
+    }
+}
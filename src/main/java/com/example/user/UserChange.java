@@ -0,0 +1,15 @@
+package com.example.user;
+
+import java.time.Instant;
+import java.util.List;
+
+// State of a user's balance and holdings after a committed change, as pushed on GET /users/{id}/events
+public record UserChange(Long userId, String type, long version, int limCoins, long heldCoins,
+                         List<Long> pokemons, List<Long> encheres, Instant at) {
+
+    static UserChange of(String type, User user, long heldCoins) {
+        return new UserChange(user.getId(), type, user.getVersion() == null ? 0 : user.getVersion(),
+                user.getLimCoins(), heldCoins, List.copyOf(user.getPokemons()), List.copyOf(user.getEncheres()),
+                Instant.now());
+    }
+}
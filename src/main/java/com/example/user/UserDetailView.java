@@ -0,0 +1,33 @@
+package com.example.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Set;
+
+// Single-user response; everything on User except the password hash. With ?fields= / ?include=
+// the parts that were not asked for are null and left out of the JSON.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserDetailView(Long id, String username, String email, Integer limCoins, String role, Long version,
+                             List<Long> pokemons, List<Long> encheres, List<Long> encheresDeUser) {
+
+    public static final List<String> FIELDS = List.of("username", "email", "limCoins", "role", "version");
+    public static final List<String> COLLECTIONS = List.of("pokemons", "encheres", "encheresDeUser");
+
+    static UserDetailView of(User user) {
+        return of(user, Set.copyOf(FIELDS), Set.copyOf(COLLECTIONS));
+    }
+
+    // Only touches the requested collections, so the others are never initialized
+    static UserDetailView of(User user, Set<String> fields, Set<String> include) {
+        return new UserDetailView(user.getId(),
+                fields.contains("username") ? user.getUsername() : null,
+                fields.contains("email") ? user.getEmail() : null,
+                fields.contains("limCoins") ? Integer.valueOf(user.getLimCoins()) : null,
+                fields.contains("role") ? user.getRole() : null,
+                fields.contains("version") ? user.getVersion() : null,
+                include.contains("pokemons") ? List.copyOf(user.getPokemons()) : null,
+                include.contains("encheres") ? List.copyOf(user.getEncheres()) : null,
+                include.contains("encheresDeUser") ? List.copyOf(user.getEncheresDeUser()) : null);
+    }
+}
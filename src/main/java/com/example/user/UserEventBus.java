@@ -0,0 +1,81 @@
+package com.example.user;
+
+import com.example.utils.AfterCommit;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fan-out of user changes to open event streams. Changes are
+ * published only once their transaction commits, so a rolled-back or retried
+ * attempt never reaches a client. Each stream coalesces bursts to the latest
+ * state per user.events.coalesce window and buffers at most
+ * user.events.buffer-size changes; a client that falls further behind has its
+ * stream completed and reconnects to a fresh snapshot.
+ */
+@ApplicationScoped
+public class UserEventBus {
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @ConfigProperty(name = "user.events.coalesce", defaultValue = "250ms")
+    Duration coalesce;
+
+    @ConfigProperty(name = "user.events.buffer-size", defaultValue = "64")
+    int bufferSize;
+
+    private final Map<Long, Set<MultiEmitter<? super UserChange>>> subscribers = new ConcurrentHashMap<>();
+
+    public boolean isWatched(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    public void publishAfterCommit(UserChange change) {
+        afterCommit.run(() -> publish(change));
+    }
+
+    // Changes for one user, starting with the given snapshot
+    public Multi<UserChange> stream(UserChange snapshot) {
+        Long userId = snapshot.userId();
+        Multi<UserChange> changes = Multi.createFrom().<UserChange>emitter(emitter -> {
+                    subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(emitter);
+                    emitter.onTermination(() -> unsubscribe(userId, emitter));
+                }, BackPressureStrategy.ERROR)
+                .onOverflow().buffer(bufferSize);
+        if (!coalesce.isZero()) {
+            changes = changes.group().intoLists().every(coalesce)
+                    .filter(batch -> !batch.isEmpty())
+                    .map(batch -> batch.get(batch.size() - 1));
+        }
+        return Multi.createBy().concatenating()
+                .streams(Multi.createFrom().item(snapshot), changes)
+                .onFailure(BackPressureFailure.class).recoverWithCompletion();
+    }
+
+    private void publish(UserChange change) {
+        Set<MultiEmitter<? super UserChange>> emitters = subscribers.get(change.userId());
+        if (emitters != null) {
+            for (MultiEmitter<? super UserChange> emitter : List.copyOf(emitters)) {
+                emitter.emit(change);
+            }
+        }
+    }
+
+    private void unsubscribe(Long userId, MultiEmitter<? super UserChange> emitter) {
+        subscribers.computeIfPresent(userId, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
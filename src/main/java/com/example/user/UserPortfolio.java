@@ -0,0 +1,32 @@
+package com.example.user;
+
+import jakarta.persistence.*;
+
+// Total valuation of a user's Pokémon, kept up to date by PortfolioValuer
+@Entity
+@Table(name = "user_portfolios")
+public class UserPortfolio {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "pokemon_value", nullable = false)
+    private double pokemonValue;
+
+    public UserPortfolio() {
+    }
+
+    public UserPortfolio(Long userId, double pokemonValue) {
+        this.userId = userId;
+        this.pokemonValue = pokemonValue;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public double getPokemonValue() {
+        return pokemonValue;
+    }
+}
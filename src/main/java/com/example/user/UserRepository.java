@@ -0,0 +1,176 @@
+package com.example.user;
+
+import com.example.user.Exception.UserNotFoundException;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the user data. User and its collections are in the
+ * second-level cache, so these reads are served without SQL once warm; the
+ * entities are loaded read-only (no dirty checking, no snapshot copies).
+ * Lists are read as constructor projections of the summary columns.
+ */
+@ApplicationScoped
+public class UserRepository implements PanacheRepository<User> {
+
+    private static final String SUMMARY =
+            "SELECT new com.example.user.UserSummaryView(u.id, u.username, u.limCoins, u.role) FROM User u";
+
+    public User findProfile(Long id) {
+        User user = getEntityManager().find(User.class, id, Map.of(HibernateHints.HINT_READ_ONLY, true));
+        if (user == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found.");
+        }
+        return user;
+    }
+
+    /**
+     * The requested parts of a user. A user already in the second-level cache
+     * is served from it. Otherwise only the requested columns are selected and
+     * all requested collections come back in one UNION ALL query, which also
+     * proves the user exists when no columns were asked for.
+     */
+    public UserDetailView findView(Long id, Set<String> fields, Set<String> include) {
+        if (getEntityManager().getEntityManagerFactory().getCache().contains(User.class, id)) {
+            return UserDetailView.of(findProfile(id), fields, include);
+        }
+        Map<String, Object> values = new HashMap<>();
+        if (!fields.isEmpty()) {
+            String select = fields.stream().map(field -> "u." + field + " AS " + field).collect(Collectors.joining(", "));
+            List<Tuple> rows = getEntityManager().createQuery("SELECT " + select + " FROM User u WHERE u.id = :id", Tuple.class)
+                    .setParameter("id", id)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                throw new UserNotFoundException("User with ID " + id + " not found.");
+            }
+            for (String field : fields) {
+                values.put(field, rows.get(0).get(field));
+            }
+        }
+        Map<String, List<Long>> collections = new HashMap<>();
+        for (String collection : include) {
+            collections.put(collection, new ArrayList<>());
+        }
+        List<String> branches = new ArrayList<>();
+        if (fields.isEmpty()) {
+            branches.add("SELECT 'id', u.id FROM User u WHERE u.id = :id");
+        }
+        for (String collection : include) {
+            branches.add("SELECT '" + collection + "', e FROM User u JOIN u." + collection + " e WHERE u.id = :id");
+        }
+        if (!branches.isEmpty()) {
+            boolean found = !fields.isEmpty();
+            for (Object[] row : getEntityManager().createQuery(String.join(" UNION ALL ", branches), Object[].class)
+                    .setParameter("id", id)
+                    .getResultList()) {
+                if ("id".equals(row[0])) {
+                    found = true;
+                } else {
+                    collections.get((String) row[0]).add((Long) row[1]);
+                }
+            }
+            if (!found) {
+                throw new UserNotFoundException("User with ID " + id + " not found.");
+            }
+        }
+        return new UserDetailView(id, (String) values.get("username"), (String) values.get("email"),
+                (Integer) values.get("limCoins"), (String) values.get("role"), (Long) values.get("version"),
+                collections.get("pokemons"), collections.get("encheres"), collections.get("encheresDeUser"));
+    }
+
+    /**
+     * Several users in two statements whatever their number: one IN query for
+     * the columns and one UNION ALL query for all three collections.
+     */
+    public Map<Long, UserDetailView> findViews(Collection<Long> ids) {
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : getEntityManager().createQuery(
+                        "SELECT u.id, u.username, u.email, u.limCoins, u.role, u.version FROM User u WHERE u.id IN :ids",
+                        Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            rows.put((Long) row[0], row);
+        }
+        Map<Long, Map<String, List<Long>>> collections = new HashMap<>();
+        if (!rows.isEmpty()) {
+            for (Long id : rows.keySet()) {
+                Map<String, List<Long>> byName = new HashMap<>();
+                for (String collection : UserDetailView.COLLECTIONS) {
+                    byName.put(collection, new ArrayList<>());
+                }
+                collections.put(id, byName);
+            }
+            String union = UserDetailView.COLLECTIONS.stream()
+                    .map(collection -> "SELECT '" + collection + "', u.id, e FROM User u JOIN u." + collection
+                            + " e WHERE u.id IN :ids")
+                    .collect(Collectors.joining(" UNION ALL "));
+            for (Object[] row : getEntityManager().createQuery(union, Object[].class)
+                    .setParameter("ids", rows.keySet())
+                    .getResultList()) {
+                collections.get((Long) row[1]).get((String) row[0]).add((Long) row[2]);
+            }
+        }
+        Map<Long, UserDetailView> views = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Object[] row = rows.get(id);
+            if (row != null) {
+                Map<String, List<Long>> byName = collections.get(id);
+                views.put(id, new UserDetailView(id, (String) row[1], (String) row[2], (Integer) row[3],
+                        (String) row[4], (Long) row[5], byName.get("pokemons"), byName.get("encheres"),
+                        byName.get("encheresDeUser")));
+            }
+        }
+        return views;
+    }
+
+    // Committed balance read from the table, bypassing the persistence context and second-level cache
+    public int limCoinsOf(Long id) {
+        List<Integer> balances = getEntityManager().createQuery("SELECT u.limCoins FROM User u WHERE u.id = :id", Integer.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (balances.isEmpty()) {
+            throw new UserNotFoundException("User with ID " + id + " not found.");
+        }
+        return balances.get(0);
+    }
+
+    // Indexed primary-key lookup of the optimistic-lock version, which every change to the user bumps
+    public Long versionOf(Long id) {
+        List<Long> versions = getEntityManager().createQuery("SELECT u.version FROM User u WHERE u.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (versions.isEmpty()) {
+            throw new UserNotFoundException("User with ID " + id + " not found.");
+        }
+        return versions.get(0);
+    }
+
+    public List<Long> pokemonIds(Long userId) {
+        return new ArrayList<>(findProfile(userId).getPokemons());
+    }
+
+    public List<Long> activeEnchereIds(Long userId) {
+        return new ArrayList<>(findProfile(userId).getEncheres());
+    }
+
+    public List<UserSummaryView> summaries() {
+        return getEntityManager().createQuery(SUMMARY + " ORDER BY u.id", UserSummaryView.class).getResultList();
+    }
+
+    public List<UserSummaryView> topByLimCoins(int limit) {
+        return getEntityManager().createQuery(SUMMARY + " ORDER BY u.limCoins DESC", UserSummaryView.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
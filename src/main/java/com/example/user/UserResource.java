@@ -1,58 +1,155 @@
 package com.example.user;
 
 import com.example.user.Exception.UserNotFoundException;
+import com.example.utils.CborProvider;
+import com.example.utils.Idempotent;
+import com.example.utils.JwtUtils;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.http.HttpServerRequest;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
         import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
-
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Path("/users")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR}) // JSON unless CBOR is asked for
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
 public class UserResource {
 
     @Inject
     UserService userService;
 
+    @Inject
+    LoginThrottle loginThrottle;
+
+    @Inject
+    BidDispatcher bidDispatcher;
+
+    @Inject
+    UserEventBus userEvents;
+
+    @Context
+    Request request;
+
+    @Context
+    HttpHeaders headers;
+
+    @ConfigProperty(name = "user.bids.sync-timeout-seconds", defaultValue = "30")
+    long bidTimeoutSeconds;
+
     @Context
     SecurityContext securityContext;
 
+    @Inject
+    JsonWebToken jwt;
+
     @GET
-    @RolesAllowed("Admin") // Only Admins can access the list of all users
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    @RolesAllowed({"User", "Admin"})
+    public Response getAllUsers(@QueryParam("ids") String ids) {
+        if (ids != null) {
+            // Multi-get, e.g. ?ids=1,2,3 (POST /users/batch for large sets)
+            try {
+                return getUsers(parseIds(ids));
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+        }
+        // Only Admins can access the list of all users
+        if (!securityContext.isUserInRole("Admin")) {
+            return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
+        }
+        return Response.ok(userService.getAllUsers()).build();
     }
 
-    @GET
-    @Path("/{id}")
-    @RolesAllowed({"User", "Admin"}) // Both Users and Admins can access this
-    public User getUserById(@PathParam("id") Long id) {
-       String authenticatedUsername = securityContext.getUserPrincipal().getName();
+    @POST
+    @Path("/batch")
+    @RolesAllowed({"User", "Admin"})
+    public Response getUsersBatch(List<Long> ids) {
+        if (ids == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Expected a JSON array of user ids.").build();
+        }
+        try {
+            return getUsers(ids);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+    }
 
-        // Find the user being requested
-        User user = userService.findUserById(id);
-        if (user == null) {
-            return null;
+    private Response getUsers(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        return Response.ok(userService.getUsers(distinct, JwtUtils.userIdOf(jwt),
+                securityContext.isUserInRole("Admin"))).build();
+    }
+
+    private static List<Long> parseIds(String commaSeparated) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : commaSeparated.split(",")) {
+            if (!id.isBlank()) {
+                try {
+                    ids.add(Long.valueOf(id.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid user id '" + id.trim() + "'.");
+                }
+            }
         }
+        return ids;
+    }
 
+    @GET
+    @Path("/{id}")
+    @RolesAllowed({"User", "Admin"}) // Both Users and Admins can access this
+    public Response getUserById(@PathParam("id") Long id,
+                                @QueryParam("fields") String fields,
+                                @QueryParam("include") String include) {
         // Check if the authenticated user matches the requested user or is an Admin
-        if (!user.getUsername().equals(authenticatedUsername) && !securityContext.isUserInRole("Admin")) {
-            return null;
+        if (!isSelfOrAdmin(id)) {
+            return Response.noContent().build();
         }
 
-        return user;
+        if (fields == null && include == null) {
+            return conditionalGet(id, "profile", () -> userService.getUserProfile(id));
+        }
+        // e.g. ?fields=username,limCoins&include=pokemons: only those columns and collections are read
+        Set<String> fieldNames = names(fields);
+        Set<String> includeNames = names(include);
+        try {
+            return conditionalGet(id, "f=" + String.join(",", new TreeSet<>(fieldNames))
+                            + ";i=" + String.join(",", new TreeSet<>(includeNames)),
+                    () -> userService.getUserProfile(id, fieldNames, includeNames));
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
     }
 
     @POST
     @RolesAllowed("Admin") // Only Admins can add new users
     public Response addUser(User user) {
         userService.addUser(user);
-        return Response.status(Response.Status.CREATED).entity(user).build();
+        return Response.status(Response.Status.CREATED).entity(UserDetailView.of(user)).build();
     }
 
     @PUT
@@ -140,29 +237,26 @@ public class UserResource {
 
     @POST
     @Path("/login")
-    public Response login(UserLoginDto loginDto) {
+    public Response login(UserLoginDto loginDto, @Context HttpServerRequest request) {
+        // Throttled before the BCrypt check; throws 429 when over the limit
+        loginThrottle.acquire(loginDto.getUsername(), request.remoteAddress().host());
         try {
             String token = userService.loginUser(loginDto.getUsername(), loginDto.getPassword());
             return Response.ok(token).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.UNAUTHORIZED).entity(e.getMessage()).build();
+        } finally {
+            loginThrottle.release();
         }
     }
 
     @POST
     @Path("/{id}/add-coins")
+    @Idempotent
     @RolesAllowed({"User", "Admin"}) // Both Users and Admins can add coins
     public Response addLimCoins(@PathParam("id") Long id, @QueryParam("amount") int amount) {
-        String authenticatedUsername = securityContext.getUserPrincipal().getName();
-
-        // Find the user
-        User user = userService.findUserById(id);
-        if (user == null) {
-            return Response.status(Response.Status.NOT_FOUND).entity("User not found").build();
-        }
-
         // Check if the authenticated user matches the requested user or is an Admin
-        if (!user.getUsername().equals(authenticatedUsername) && !securityContext.isUserInRole("Admin")) {
+        if (!isSelfOrAdmin(id)) {
             return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
         }
 /*
@@ -180,18 +274,11 @@ public class UserResource {
 
     @POST
     @Path("/{id}/deduct-coins")
+    @Idempotent
     @RolesAllowed({"User", "Admin"}) // Both Users and Admins can spend coins
     public Response deductLimCoins(@PathParam("id") Long id, @QueryParam("amount") int amount) {
-        String authenticatedUsername = securityContext.getUserPrincipal().getName();
-
-        // Find the user
-        User user = userService.findUserById(id);
-        if (user == null) {
-            return Response.status(Response.Status.NOT_FOUND).entity("User not found").build();
-        }
-
         // Check if the authenticated user matches the requested user or is an Admin
-        if (!user.getUsername().equals(authenticatedUsername) && !securityContext.isUserInRole("Admin")) {
+        if (!isSelfOrAdmin(id)) {
             return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
         }
 
@@ -203,6 +290,50 @@ public class UserResource {
         return Response.ok("Coins deducted successfully!").build();
     }
 
+    @GET
+    @Path("/{id}/balance")
+    @RolesAllowed({"User", "Admin"})
+    public Response getBalance(@PathParam("id") Long id) {
+        if (!isSelfOrAdmin(id)) {
+            return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
+        }
+        return Response.ok(userService.getBalance(id)).build();
+    }
+
+    @GET
+    @Path("/{id}/portfolio-value")
+    @RolesAllowed({"User", "Admin"})
+    public Response getPortfolioValue(@PathParam("id") Long id) {
+        if (!isSelfOrAdmin(id)) {
+            return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
+        }
+        return Response.ok(userService.getPortfolioValue(id)).build();
+    }
+
+    @GET
+    @Path("/{id}/stats")
+    @RolesAllowed({"User", "Admin"})
+    public Response getBidStats(@PathParam("id") Long id) {
+        if (!isSelfOrAdmin(id)) {
+            return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
+        }
+        return Response.ok(userService.getBidStats(id)).build();
+    }
+
+    // Current balance and holdings, then the new state after each committed change
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @RolesAllowed({"User", "Admin"})
+    @Blocking
+    public Multi<UserChange> streamEvents(@PathParam("id") Long id) {
+        if (!isSelfOrAdmin(id)) {
+            throw new ForbiddenException("Access denied");
+        }
+        return userEvents.stream(userService.getChangeSnapshot(id));
+    }
+
     @POST
     @Path("/{userId}/add-pokemon/{pokemonId}")
     public Response addPokemonToUser(@PathParam("userId") Long userId, @PathParam("pokemonId")Long pokemonId) {
@@ -213,16 +344,52 @@ public class UserResource {
     @GET
     @Path("/{userId}/pokemons")
     public Response getUserPokemons(@PathParam("userId") Long userId) {
-        return Response.ok(userService.getUserPokemons(userId)).build();
+        return conditionalGet(userId, "pokemons", () -> userService.getUserPokemons(userId));
     }
 
     @POST
     @Path("/{userId}/place-bid/{enchereId}")
+    @Idempotent
     public Response placeBid(@PathParam("userId") Long userId, @PathParam("enchereId") Long enchereId, @QueryParam("amount") double amount) {
-        userService.placeBid(userId, enchereId, amount);
+        if (!(amount > 0)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Bid amount must be greater than 0.").build();
+        }
+        // Goes through the auction's bid queue so bids on one auction are applied in order
+        BidTicket ticket = bidDispatcher.submit(userId, enchereId, amount);
+        try {
+            ticket.await(bidTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            return Response.accepted(ticket).location(URI.create("/users/bid-tickets/" + ticket.getId())).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+        }
+        if (ticket.getStatus() != BidTicket.Status.ACCEPTED) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ticket.getMessage()).build();
+        }
         return Response.ok("Bid placed successfully!").build();
     }
 
+    @POST
+    @Path("/{userId}/place-bid/{enchereId}/async")
+    @Idempotent
+    public Response placeBidAsync(@PathParam("userId") Long userId, @PathParam("enchereId") Long enchereId, @QueryParam("amount") double amount) {
+        if (!(amount > 0)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Bid amount must be greater than 0.").build();
+        }
+        BidTicket ticket = bidDispatcher.submit(userId, enchereId, amount);
+        return Response.accepted(ticket).location(URI.create("/users/bid-tickets/" + ticket.getId())).build();
+    }
+
+    @GET
+    @Path("/bid-tickets/{ticketId}")
+    public Response getBidTicket(@PathParam("ticketId") String ticketId) {
+        BidTicket ticket = bidDispatcher.getTicket(ticketId);
+        if (ticket == null) {
+            return Response.status(Response.Status.NOT_FOUND).entity("Bid ticket not found or expired.").build();
+        }
+        return Response.ok(ticket).build();
+    }
+
     @POST
     @Path("/{userId}/abandon-bid/{enchereId}")
     @RolesAllowed({"User", "Admin"}) // Both Users and Admins can abandon bids
@@ -241,11 +408,12 @@ public class UserResource {
     @GET
     @Path("/{userId}/bids")
     public Response getUserEncheres(@PathParam("userId") Long userId) {
-        return Response.ok(userService.getUserEncheres(userId)).build();
+        return conditionalGet(userId, "bids", () -> userService.getUserEncheres(userId));
     }
 
     @POST
     @Path("/{userId}/sell-pokemon/{pokemonId}")
+    @Idempotent
     @RolesAllowed({"User", "Admin"}) // Both Users and Admins can sell Pokémon
     public Response sellPokemonToSystem(@PathParam("userId") Long userId, @PathParam("pokemonId") Long pokemonId) {
         try {
@@ -262,12 +430,42 @@ public class UserResource {
         }
     }
 
+    @POST
+    @Path("/{userId}/sell-pokemons")
+    @Idempotent
+    @RolesAllowed({"User", "Admin"})
+    public Response sellPokemonsToSystem(@PathParam("userId") Long userId, List<Long> pokemonIds) {
+        if (!isSelfOrAdmin(userId)) {
+            return Response.status(Response.Status.FORBIDDEN).entity("Access denied").build();
+        }
+        try {
+            return Response.ok(userService.sellPokemonsToSystem(userId, pokemonIds)).build();
+        } catch (UserNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.BAD_GATEWAY).entity(e.getMessage()).build();
+        }
+    }
+
+    @GET
+    @Path("/top-networth")
+    @RolesAllowed("Admin")
+    public Response getTopUsersByNetWorth(@QueryParam("limit") @DefaultValue("10") int limit) {
+        try {
+            return Response.ok(userService.getTopUsersByNetWorth(limit)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+    }
+
     @GET
     @Path("/top-limcoins")
     @RolesAllowed("Admin") // Restrict access to Admins
     public Response getTopUsersByLimCoins() {
         try {
-            List<User> topUsers = userService.getTopUsersByLimCoins();
+            List<UserSummaryView> topUsers = userService.getTopUsersByLimCoins();
             return Response.ok(topUsers).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -313,5 +511,40 @@ public class UserResource {
         }
     }
 
+    /**
+     * Answers If-None-Match from the user's version alone: the strong ETag is
+     * the version plus the representation (view and media type), so a 304
+     * costs one primary-key lookup and the body is only built on a mismatch.
+     */
+    private Response conditionalGet(Long userId, String view, Supplier<Object> body) {
+        boolean cbor = !headers.getAcceptableMediaTypes().isEmpty()
+                && CborProvider.APPLICATION_CBOR_TYPE.isCompatible(headers.getAcceptableMediaTypes().get(0))
+                && !headers.getAcceptableMediaTypes().get(0).isWildcardType();
+        EntityTag tag = new EntityTag(userId + "-" + userService.getVersion(userId) + "-" + view + (cbor ? "-cbor" : ""));
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        return Response.ok(body.get()).tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
 
+    private static Set<String> names(String commaSeparated) {
+        if (commaSeparated == null || commaSeparated.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(commaSeparated.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    // Ownership comes from the token's user id claim, so this costs no database query.
+    // Tokens issued before the claim existed only pass for Admins.
+    private boolean isSelfOrAdmin(Long id) {
+        if (securityContext.isUserInRole("Admin")) {
+            return true;
+        }
+        Long authenticatedUserId = JwtUtils.userIdOf(jwt);
+        return authenticatedUserId != null && authenticatedUserId.equals(id);
+    }
 }
@@ -0,0 +1,240 @@
+package com.example.user;
+
+import com.example.utils.AfterCommit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of lower-cased usernames and emails for the admin search.
+ * Prefix lookups are a range of a sorted map; substring lookups scan the
+ * terms without touching the database. Loaded at startup and updated after
+ * each committed create, update or delete on this node; changes made on other
+ * nodes are picked up by the rebuild every user.search.rebuild-interval.
+ */
+@ApplicationScoped
+public class UserSearchIndex {
+
+    private static final class Terms {
+        // "term\0id" -> id, so equal terms of different users stay distinct
+        final ConcurrentSkipListMap<String, Long> sorted = new ConcurrentSkipListMap<>();
+        // id -> {username, email}
+        final Map<Long, String[]> byId = new ConcurrentHashMap<>();
+
+        void put(Long id, String username, String email) {
+            remove(id);
+            String[] userTerms = {normalize(username), normalize(email)};
+            byId.put(id, userTerms);
+            for (String term : userTerms) {
+                if (term != null) {
+                    sorted.put(term + '\0' + id, id);
+                }
+            }
+        }
+
+        void remove(Long id) {
+            String[] userTerms = byId.remove(id);
+            if (userTerms != null) {
+                for (String term : userTerms) {
+                    if (term != null) {
+                        sorted.remove(term + '\0' + id);
+                    }
+                }
+            }
+        }
+    }
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private volatile Terms terms = new Terms();
+    // Changes applied while a rebuild loads, replayed onto the new index before it replaces the old one
+    private volatile Queue<Consumer<Terms>> duringRebuild;
+    private final ReentrantReadWriteLock swap = new ReentrantReadWriteLock();
+
+    void onStart(@Observes StartupEvent event) {
+        rebuild();
+    }
+
+    @Scheduled(every = "${user.search.rebuild-interval:10m}", delayed = "${user.search.rebuild-interval:10m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Loads a new index from the users table and swaps it in; searches keep using the old one meanwhile
+    public synchronized void rebuild() {
+        swap.writeLock().lock();
+        try {
+            duringRebuild = new ConcurrentLinkedQueue<>();
+        } finally {
+            swap.writeLock().unlock();
+        }
+        Terms loaded = new Terms();
+        try {
+            QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                            "SELECT u.id, u.username, u.email FROM User u", Object[].class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                    .getResultStream()
+                    .forEach(row -> loaded.put((Long) row[0], (String) row[1], (String) row[2])));
+        } catch (RuntimeException e) {
+            duringRebuild = null;
+            throw e;
+        }
+        swap.writeLock().lock();
+        try {
+            duringRebuild.forEach(change -> change.accept(loaded));
+            duringRebuild = null;
+            terms = loaded;
+        } finally {
+            swap.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return terms.byId.size();
+    }
+
+    public void indexAfterCommit(User user) {
+        Long id = user.getId();
+        String username = user.getUsername();
+        String email = user.getEmail();
+        afterCommit.run(() -> apply(index -> index.put(id, username, email)));
+    }
+
+    public void removeAfterCommit(Long id) {
+        afterCommit.run(() -> apply(index -> index.remove(id)));
+    }
+
+    public record Page(List<Long> ids, long total) {
+    }
+
+    /**
+     * Ids of users whose username or email starts with (or, with contains,
+     * includes) the query, ignoring case. Returns null when more than limit
+     * users match, so the caller can use the database instead.
+     */
+    public Set<Long> match(String query, boolean contains, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        boolean complete = forEachMatch(terms, normalize(query), contains, id -> {
+            ids.add(id);
+            return ids.size() <= limit;
+        });
+        return complete ? ids : null;
+    }
+
+    /**
+     * One page of the users matching as in {@link #match}, ordered by id,
+     * username or email, and the number of matches. Matches are streamed
+     * through a heap of the first offset + size, so a broad query is counted
+     * and ranked without collecting or sorting every match. Ties and missing
+     * terms fall back to id order.
+     */
+    public Page search(String query, boolean contains, String field, boolean descending, int offset, int size) {
+        int index = switch (field) {
+            case "username" -> 0;
+            case "email" -> 1;
+            default -> -1;
+        };
+        Comparator<Keyed> order = index < 0 ? Comparator.comparing(Keyed::id)
+                : Comparator.comparing(Keyed::term, Comparator.nullsLast(Comparator.naturalOrder()));
+        if (descending) {
+            order = order.reversed();
+        }
+        order = order.thenComparing(Keyed::id);
+
+        Terms snapshot = terms;
+        int keep = offset + size;
+        // Max-heap of the best keep matches so far; each term is read once, so concurrent updates cannot break the order
+        PriorityQueue<Keyed> best = new PriorityQueue<>(Math.min(keep, 1024) + 1, order.reversed());
+        long[] total = {0};
+        forEachMatch(snapshot, normalize(query), contains, id -> {
+            total[0]++;
+            String[] userTerms = snapshot.byId.get(id);
+            best.add(new Keyed(id, index < 0 || userTerms == null ? null : userTerms[index]));
+            if (best.size() > keep) {
+                best.poll();
+            }
+            return true;
+        });
+        List<Keyed> kept = new ArrayList<>(best);
+        kept.sort(order);
+        return new Page(kept.stream().skip(offset).map(Keyed::id).toList(), total[0]);
+    }
+
+    private record Keyed(Long id, String term) {
+    }
+
+    /**
+     * Passes each matching user's id to the visitor once, until it returns
+     * false; returns whether every match was visited. A prefix match walks
+     * the sorted terms and skips a user's email entry when the username
+     * already matched.
+     */
+    private static boolean forEachMatch(Terms index, String term, boolean contains, Predicate<Long> visitor) {
+        if (contains) {
+            for (Map.Entry<Long, String[]> entry : index.byId.entrySet()) {
+                String[] userTerms = entry.getValue();
+                if (((userTerms[0] != null && userTerms[0].contains(term))
+                        || (userTerms[1] != null && userTerms[1].contains(term))) && !visitor.test(entry.getKey())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Map.Entry<String, Long> entry : index.sorted.subMap(term, term + Character.MAX_VALUE).entrySet()) {
+            String[] userTerms = index.byId.get(entry.getValue());
+            if (userTerms == null) {
+                continue;
+            }
+            String username = userTerms[0];
+            if (username != null && username.startsWith(term) && !entry.getKey().equals(username + '\0' + entry.getValue())) {
+                continue; // the email entry of a user already visited through the username
+            }
+            if (!visitor.test(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private void apply(Consumer<Terms> change) {
+        swap.readLock().lock();
+        try {
+            change.accept(terms);
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.user;
+
+import java.util.List;
+
+// One page of GET /admin/users/search; total counts every match, not just this page
+public record UserSearchPage(List<UserSummaryView> users, long total, int page, int size) {
+}
@@ -2,6 +2,8 @@ package com.example.user;
 
 import com.example.user.Exception.UserNotFoundException;
 import com.example.utils.JwtUtils;
+import com.example.utils.RetryOnConflict;
+import com.example.utils.TimedSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -10,24 +12,73 @@ import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 //import org.mindrot.jbcrypt.BCrypt;
 //import com.example.utils.JwtUtils;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
-import org.mindrot.jbcrypt.BCrypt;
+import org.jboss.logging.Logger;
 
 
 @ApplicationScoped
-
-
+@TimedSpan
 public class UserService {
 
+    private static final Logger LOG = Logger.getLogger(UserService.class);
+
     @Inject
     EntityManager em;
 
+    @Inject
+    PasswordHasher passwordHasher;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    CoinLedger coinLedger;
+
+    @Inject
+    AuctionReconciler auctionReconciler;
+
+    @Inject
+    UserEventBus userEvents;
+
+    @Inject
+    PortfolioValuer portfolioValuer;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    CoinEconomyStats economyStats;
+
+    @Inject
+    HotAccountWriteBehind hotAccounts;
+
+    @ConfigProperty(name = "user.batch.max-ids", defaultValue = "200")
+    int maxBatchSize;
+
+    @ConfigProperty(name = "user.sell.max-batch", defaultValue = "500")
+    int maxSellBatch;
+
+    @ConfigProperty(name = "user.sell.max-parallel", defaultValue = "8")
+    int maxSellParallel;
+
     @Inject
     @RestClient
     PokemonServiceClient pokemonClient;
@@ -37,8 +88,8 @@ public class UserService {
     EnchereRestClient enchereClient;
 
 
-    public List<User> getAllUsers() {
-        return em.createQuery("SELECT u FROM User u", User.class).getResultList();
+    public List<UserSummaryView> getAllUsers() {
+        return userRepository.summaries();
     }
 
     public User findUserById(Long id) {
@@ -55,6 +106,26 @@ public class UserService {
         return user;
     }
 
+    // Read-only load for profile reads; use findUserById when the user will be modified
+    public UserDetailView getUserProfile(Long id) {
+        return UserDetailView.of(userRepository.findProfile(id));
+    }
+
+    // ?fields= / ?include= read: names are validated against the view before they reach a query
+    public UserDetailView getUserProfile(Long id, Set<String> fields, Set<String> include) {
+        requireKnown(fields, UserDetailView.FIELDS, "field");
+        requireKnown(include, UserDetailView.COLLECTIONS, "collection");
+        return userRepository.findView(id, fields, include);
+    }
+
+    private static void requireKnown(Set<String> names, List<String> known, String kind) {
+        for (String name : names) {
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown " + kind + " '" + name + "', expected one of " + known + ".");
+            }
+        }
+    }
+
     @Transactional
     public void addUser(User user) {
         // Validate required fields
@@ -85,7 +156,7 @@ public class UserService {
         }
 
         try {
-            String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt());
+            String hashedPassword = passwordHasher.hash(user.getPassword());
             user.setPassword(hashedPassword);
         } catch (Exception e) {
             throw new RuntimeException("Error hashing password: " + e.getMessage(), e);
@@ -100,10 +171,14 @@ public class UserService {
         }
 
         em.persist(user);
+        portfolioValuer.recompute(user);
+        searchIndex.indexAfterCommit(user);
+        economyStats.userCreated(user.getRole(), user.getLimCoins());
     }
 
 
     @Transactional
+    @RetryOnConflict
     public void updateUser(Long id, User updatedUser, String authenticatedRole) {
         if (!"Admin".equals(authenticatedRole)) {
             throw new SecurityException("Only Admins can update users.");
@@ -121,10 +196,12 @@ public class UserService {
             existingUser.setEmail(updatedUser.getEmail());
         }
         if (updatedUser.getRole() != null) {
+            economyStats.roleChanged(existingUser.getRole(), updatedUser.getRole());
             existingUser.setRole(updatedUser.getRole());
         }
 
         em.merge(existingUser);
+        searchIndex.indexAfterCommit(existingUser);
     }
 
     @Transactional
@@ -139,6 +216,9 @@ public class UserService {
         }
 
         em.remove(user);
+        portfolioValuer.remove(id);
+        economyStats.userDeleted(user.getRole(), user.getLimCoins());
+        searchIndex.removeAfterCommit(id);
     }
 
 
@@ -167,7 +247,7 @@ public class UserService {
             }
 
             // Hash the password
-            user.setPassword(BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()));
+            user.setPassword(passwordHasher.hash(user.getPassword()));
 
             // Set role to "User" if not provided
             if (user.getRole() == null || user.getRole().isEmpty()) {
@@ -179,6 +259,9 @@ public class UserService {
 
             // Persist the user
             em.persist(user);
+            portfolioValuer.recompute(user);
+            searchIndex.indexAfterCommit(user);
+            economyStats.userCreated(user.getRole(), user.getLimCoins());
         } catch (Exception e) {
             // Add debugging logs
             e.printStackTrace();
@@ -205,12 +288,12 @@ public class UserService {
                     .getSingleResult();
 
             // Validate the password using BCrypt
-            if (!BCrypt.checkpw(password, user.getPassword())) {
+            if (!passwordHasher.matches(password, user.getPassword())) {
                 throw new IllegalArgumentException("Invalid password.");
             }
 
             // Generate and return the JWT token
-            return  JwtUtils.generateToken(user.getUsername(), user.getRole());
+            return  JwtUtils.generateToken(user.getId(), user.getUsername(), user.getRole());
 
         } catch (NoResultException e) {
             throw new IllegalArgumentException("User not found with the provided username.");
@@ -218,28 +301,92 @@ public class UserService {
     }
 
     @Transactional
+    @RetryOnConflict
     public boolean addLimCoins(Long userId, int amount) {
+        if (amount > 0 && hotAccounts.isHot(userId)) {
+            hotAccounts.credit(userId, amount);
+            return true;
+        }
         User user = findUserById(userId);
         if (user == null) {
             return false; // User not found
         }
-        user.setLimCoins(user.getLimCoins() + amount);
+        setLimCoins(user, user.getLimCoins() + amount);
         em.merge(user);
+        publishChange("coins", user);
         return true; // Coins added successfully
     }
 
 
     @Transactional
+    @RetryOnConflict
     public boolean deductLimCoins(Long userId, int amount) {
         User user = findUserById(userId);
-        if (user == null || user.getLimCoins() < amount) {
-            return false; // User not found or insufficient coins
+        if (user == null || !coinLedger.debit(userId, amount, user.getLimCoins())) {
+            return false; // User not found or insufficient coins outside of bid holds
         }
-        user.setLimCoins(user.getLimCoins() - amount);
+        setLimCoins(user, user.getLimCoins() - amount);
         em.merge(user);
+        publishChange("coins", user);
         return true; // Coins deducted successfully
     }
 
+    /**
+     * Applies credits collected by HotAccountWriteBehind, one update per
+     * account, together with the journal checkpoint they bring it to.
+     * Credits for accounts deleted meanwhile, or that would overflow the
+     * balance, are dropped.
+     */
+    @Transactional
+    @RetryOnConflict
+    public void applyBatchedCredits(Map<Long, Long> amounts, long journalSequence) {
+        for (Map.Entry<Long, Long> credit : amounts.entrySet()) {
+            User user = em.find(User.class, credit.getKey());
+            if (user == null) {
+                continue;
+            }
+            long limCoins = user.getLimCoins() + credit.getValue();
+            if (limCoins > Integer.MAX_VALUE) {
+                // Skipped rather than failing the batch, which would hold back every other account's credits
+                LOG.errorf("Dropped %d journaled LimCoins for user %d: the balance would exceed %d",
+                        credit.getValue(), credit.getKey(), Integer.MAX_VALUE);
+                continue;
+            }
+            setLimCoins(user, (int) limCoins);
+            publishChange("coins", user);
+        }
+        hotAccounts.checkpoint(journalSequence);
+    }
+
+    // Every balance change of an existing user goes through here so the economy counters follow it
+    private void setLimCoins(User user, int limCoins) {
+        economyStats.balanceChanged(user.getLimCoins(), limCoins);
+        user.setLimCoins(limCoins);
+    }
+
+    // LimCoins split between coins held for open bids and coins free to spend or bid
+    public Map<String, Long> getBalance(Long userId) {
+        long limCoins = userRepository.findProfile(userId).getLimCoins();
+        long held = coinLedger.held(userId);
+        Map<String, Long> balance = new LinkedHashMap<>();
+        balance.put("limCoins", limCoins);
+        balance.put("held", held);
+        balance.put("available", limCoins - held);
+        return balance;
+    }
+
+    public UserChange getChangeSnapshot(Long userId) {
+        return UserChange.of("snapshot", userRepository.findProfile(userId), coinLedger.held(userId));
+    }
+
+    // Pushes the user's new state to open event streams once the transaction commits
+    private void publishChange(String type, User user) {
+        if (userEvents.isWatched(user.getId())) {
+            em.flush(); // so the published version is the one being committed
+            userEvents.publishAfterCommit(UserChange.of(type, user, coinLedger.held(user.getId())));
+        }
+    }
+
     private void checkForDuplicateUser(User user) {
         Long usernameCount = em.createQuery(
                         "SELECT COUNT(u) FROM User u WHERE u.username = :username AND u.id != :id", Long.class)
@@ -263,23 +410,49 @@ public class UserService {
     }
 
     @Transactional
+    @RetryOnConflict
     public void addPokemonToUser(Long userId, Long pokemonid) {
         User user = findUserById(userId);
 
         user.getPokemons().add(pokemonid);
         em.merge(user);
+        portfolioValuer.recompute(user);
+        publishChange("pokemons", user);
+    }
+
+    // Multi-get; Admins and the caller's own record get the full view, other users only their id and username
+    public UserBatchView getUsers(Collection<Long> ids, Long callerId, boolean admin) {
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " ids per request, got " + ids.size() + ".");
+        }
+        Map<Long, UserDetailView> users = ids.isEmpty() ? new LinkedHashMap<>() : userRepository.findViews(ids);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            UserDetailView view = users.get(id);
+            if (view == null) {
+                missing.add(id);
+            } else if (!admin && !id.equals(callerId)) {
+                users.put(id, new UserDetailView(id, view.username(), null, null, null, null, null, null, null));
+            }
+        }
+        return new UserBatchView(users, missing);
+    }
+
+    public Long getVersion(Long userId) {
+        return userRepository.versionOf(userId);
     }
 
     public List<Long> getUserPokemons(Long userId) {
-        return findUserById(userId).getPokemons();
+        return userRepository.pokemonIds(userId);
     }
 
 
     public List<Long> getUserEncheres(Long userId) {
-        return findUserById(userId).getEncheres();
+        return userRepository.activeEnchereIds(userId);
     }
 
     @Transactional
+    @RetryOnConflict
     public String sellPokemonToSystem(Long userId, Long pokemonId) {
         // Find the user
         User user = findUserById(userId);
@@ -300,19 +473,122 @@ public class UserService {
         Pokemon pokemon = pokemonClient.trouverPokemon(pokemonToSell);
         double pokemonRealValue = pokemon.getValeurReelle();
 
-        user.setLimCoins(user.getLimCoins() + (int) pokemonRealValue);
+        setLimCoins(user, user.getLimCoins() + (int) pokemonRealValue);
 
         user.getPokemons().remove(pokemonToSell);
 
         em.merge(user);
+        portfolioValuer.recompute(user);
+        publishChange("pokemons", user);
 
         return "Pokémon sold successfully! Real value: " + pokemonRealValue + " LimCoins.";
     }
 
-    public List<User> getTopUsersByLimCoins() {
-        return em.createQuery("SELECT u FROM User u ORDER BY u.limCoins DESC", User.class)
-                .setMaxResults(5) // Limit the results to 5
-                .getResultList();
+    /**
+     * Sells several Pokémon at once. Ownership is checked against a count per
+     * id (a user can hold the same Pokémon more than once), the distinct
+     * valuations are fetched in parallel outside any transaction, at most
+     * user.sell.max-parallel at a time, and the credit and removal are applied
+     * in one transaction. Nothing is sold if any check or valuation fails.
+     */
+    public Map<String, Object> sellPokemonsToSystem(Long userId, List<Long> pokemonIds) {
+        if (pokemonIds == null || pokemonIds.isEmpty() || pokemonIds.contains(null)) {
+            throw new IllegalArgumentException("Expected a non-empty list of Pokémon ids.");
+        }
+        if (pokemonIds.size() > maxSellBatch) {
+            throw new IllegalArgumentException("At most " + maxSellBatch + " Pokémon per request, got " + pokemonIds.size() + ".");
+        }
+        requireOwned(userRepository.pokemonIds(userId), pokemonIds);
+
+        Map<Long, Double> values = fetchValuations(new HashSet<>(pokemonIds));
+        // Truncated per Pokémon, as sellPokemonToSystem does, so selling in bulk pays the same as one at a time
+        int credit = 0;
+        for (Long pokemonId : pokemonIds) {
+            credit += (int) values.get(pokemonId).doubleValue();
+        }
+        applySale(userId, pokemonIds, credit);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sold", pokemonIds);
+        result.put("credited", credit);
+        return result;
+    }
+
+    @Transactional
+    @RetryOnConflict
+    void applySale(Long userId, List<Long> pokemonIds, int credit) {
+        User user = findUserById(userId);
+        // Checked again under the version check: the collection may have changed since the valuation
+        requireOwned(user.getPokemons(), pokemonIds);
+        Map<Long, Integer> toRemove = countById(pokemonIds);
+        user.getPokemons().removeIf(id -> toRemove.merge(id, -1, Integer::sum) >= 0);
+        setLimCoins(user, user.getLimCoins() + credit);
+        portfolioValuer.recompute(user);
+        publishChange("pokemons", user);
+    }
+
+    private Map<Long, Double> fetchValuations(Set<Long> pokemonIds) {
+        Semaphore permits = new Semaphore(maxSellParallel);
+        Map<Long, Future<Double>> pending = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long pokemonId : pokemonIds) {
+                pending.put(pokemonId, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return pokemonClient.trouverPokemon(pokemonId).getValeurReelle();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            Map<Long, Double> values = new HashMap<>();
+            for (Map.Entry<Long, Future<Double>> entry : pending.entrySet()) {
+                values.put(entry.getKey(), entry.getValue().get());
+            }
+            return values;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not value the Pokémon: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while valuing the Pokémon.", e);
+        }
+    }
+
+    private static void requireOwned(List<Long> ownedIds, List<Long> pokemonIds) {
+        Map<Long, Integer> available = countById(ownedIds);
+        for (Map.Entry<Long, Integer> wanted : countById(pokemonIds).entrySet()) {
+            int owned = available.getOrDefault(wanted.getKey(), 0);
+            if (owned == 0) {
+                throw new IllegalArgumentException("User does not own Pokémon " + wanted.getKey() + ".");
+            }
+            if (owned < wanted.getValue()) {
+                throw new IllegalArgumentException("Cannot sell Pokémon " + wanted.getKey() + " "
+                        + wanted.getValue() + " times, the user owns " + owned + ".");
+            }
+        }
+    }
+
+    private static Map<Long, Integer> countById(List<Long> ids) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Long id : ids) {
+            counts.merge(id, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public List<UserSummaryView> getTopUsersByLimCoins() {
+        return userRepository.topByLimCoins(5); // Limit the results to 5
+    }
+
+    public NetWorthView getPortfolioValue(Long userId) {
+        return portfolioValuer.netWorth(userId);
+    }
+
+    public List<NetWorthView> getTopUsersByNetWorth(int limit) {
+        if (limit < 1 || limit > maxBatchSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxBatchSize + ".");
+        }
+        return portfolioValuer.topByNetWorth(limit);
     }
 
     //get ecnhere by user id
@@ -323,11 +599,30 @@ public class UserService {
 
     @Transactional
     public void placeBid(Long userId, Long enchereId, double amount) {
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Bid amount must be greater than 0.");
+        }
         User user = findUserById(userId);
-        Enchere enchere = enchereClient.getEncherebyId(enchereId);
-        enchereClient.placerBid(userId, enchereId, amount); // Notify the Enchère microservice
-        addEnchereToActive(userId, enchereId);
-        em.merge(user);
+        // Escrow the bid first: a raised bid replaces the user's earlier hold on the same auction. The committed
+        // balance is read under the ledger's lock, where deductLimCoins also checks, so the two cannot overspend
+        long previousHold = coinLedger.reserve(userId, enchereId, (long) Math.ceil(amount),
+                () -> userRepository.limCoinsOf(userId));
+        if (previousHold < 0) {
+            throw new IllegalArgumentException("Insufficient available LimCoins: "
+                    + coinLedger.available(userId, user.getLimCoins()) + " available outside of other bids.");
+        }
+        try {
+            Enchere enchere = enchereClient.getEncherebyId(enchereId);
+            enchereClient.placerBid(enchereId, userId, amount); // Notify the Enchère microservice
+            auctionReconciler.track(enchereId, enchere.getDateExpiration());
+            if (!user.getEncheres().contains(enchereId)) {
+                addEnchereToActive(userId, enchereId);
+            }
+            publishChange("bids", user);
+        } catch (RuntimeException e) {
+            coinLedger.restore(userId, enchereId, previousHold);
+            throw e;
+        }
     }
 
     @Transactional
@@ -349,9 +644,11 @@ public class UserService {
 
             // Remove the auction ID from the user's active bids list
             boolean removed = user.getEncheres().remove(enchereId);
+            coinLedger.release(userId, enchereId);
 
             // Persist the updated user entity
             em.merge(user);
+            publishChange("bids", user);
 
             // Return success or failure based on the removal result
             return removed
@@ -387,6 +684,7 @@ public class UserService {
 
 
     @Transactional
+    @RetryOnConflict
     public void addEnchereToActive(Long userId, Long enchereId) {
         User user = findUserById(userId);
         if (user == null) {
@@ -396,12 +694,14 @@ public class UserService {
         if (!user.getEncheres().contains(enchereId)) {
             user.getEncheres().add(enchereId);
             em.merge(user);
+            auctionReconciler.track(enchereId, null);
         } else {
             throw new IllegalArgumentException("Enchere ID " + enchereId + " is already in the user's active encheres list.");
         }
     }
 
     @Transactional
+    @RetryOnConflict
     public void addEnchere(Long userId, Long enchereId) {
         User user = findUserById(userId);
         if (user == null) {
@@ -417,15 +717,15 @@ public class UserService {
     }
 
 
-   /* public double calculateTotalWonBids(Long userId) {
-        User user = findUserById(userId);
-
-        return user.getEncheres().stream()
-                .filter(bid -> bid.getEnchere().getStatus().equals("closed") &&
-                        bid.getEnchere().getHighestBidderId().equals(userId))
-                .mapToDouble(Bid::getAmount)
-                .sum();
-    }*/
+    // Maintained incrementally by AuctionReconciler as auctions close
+    public UserBidStats getBidStats(Long userId) {
+        UserBidStats stats = em.find(UserBidStats.class, userId);
+        if (stats == null) {
+            userRepository.findProfile(userId); // 404 for unknown users
+            return new UserBidStats(userId);
+        }
+        return stats;
+    }
 
 
 }
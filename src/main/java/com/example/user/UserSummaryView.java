@@ -0,0 +1,5 @@
+package com.example.user;
+
+// Row of user lists and leaderboards, read with a constructor projection (no collections, no password)
+public record UserSummaryView(Long id, String username, Integer limCoins, String role) {
+}
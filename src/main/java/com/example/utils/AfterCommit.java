@@ -0,0 +1,44 @@
+package com.example.utils;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+// Runs in-memory side effects of a transaction only once it has committed (or, with always, once it has ended);
+// immediately when there is none.
+@ApplicationScoped
+public class AfterCommit {
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    public void run(Runnable action) {
+        register(action, true);
+    }
+
+    // Runs the action once the transaction has ended, whether it committed or rolled back
+    public void always(Runnable action) {
+        register(action, false);
+    }
+
+    private void register(Runnable action, boolean onlyOnCommit) {
+        if (transactions.getTransactionKey() == null) {
+            action.run();
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!onlyOnCommit || status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
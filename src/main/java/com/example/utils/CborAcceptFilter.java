@@ -0,0 +1,23 @@
+package com.example.utils;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+// Registered on the REST clients: with user.remote.cbor=true, responses are requested as CBOR with
+// JSON as the fallback. Request bodies keep the client's declared content type.
+public class CborAcceptFilter implements ClientRequestFilter {
+
+    private static final boolean ENABLED =
+            ConfigProvider.getConfig().getOptionalValue("user.remote.cbor", Boolean.class).orElse(false);
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        if (ENABLED) {
+            request.getHeaders().putSingle(HttpHeaders.ACCEPT,
+                    CborProvider.APPLICATION_CBOR + ", " + MediaType.APPLICATION_JSON + ";q=0.9");
+        }
+    }
+}
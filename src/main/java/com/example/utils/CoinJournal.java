@@ -0,0 +1,196 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of (sequence, account, amount) records in segment files
+ * named after their first sequence number. Appends are written under a short
+ * lock and made durable with group commit: one caller forces the file for
+ * everyone who appended before it. Each record carries a CRC, so a record torn
+ * by a crash ends the replay instead of corrupting it.
+ */
+public class CoinJournal implements AutoCloseable {
+
+    public record Entry(long sequence, long account, long amount) {
+    }
+
+    private static final int RECORD_BYTES = 3 * Long.BYTES + Integer.BYTES;
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private FileChannel segment;
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    public CoinJournal(Path directory, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads the records after the given sequence, then opens a new segment
+     * for appending. Must be called once, before any append.
+     */
+    public synchronized List<Entry> open(long afterSequence) {
+        List<Entry> entries = new ArrayList<>();
+        lastSequence = afterSequence;
+        try {
+            Files.createDirectories(directory);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+            for (Path file : segments()) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    while (true) {
+                        buffer.clear();
+                        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                            // read the whole record
+                        }
+                        if (buffer.hasRemaining()) {
+                            break;
+                        }
+                        buffer.flip();
+                        long sequence = buffer.getLong();
+                        long account = buffer.getLong();
+                        long amount = buffer.getLong();
+                        if (buffer.getInt() != crc(buffer.array())) {
+                            break;
+                        }
+                        if (sequence > afterSequence) {
+                            entries.add(new Entry(sequence, account, amount));
+                        }
+                        lastSequence = Math.max(lastSequence, sequence);
+                    }
+                }
+            }
+            durableSequence = lastSequence;
+            roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open coin journal in " + directory, e);
+        }
+        return entries;
+    }
+
+    // Writes the record and returns its sequence; see awaitDurable
+    public synchronized long append(long account, long amount) {
+        long sequence = lastSequence + 1;
+        record.clear();
+        record.putLong(sequence).putLong(account).putLong(amount);
+        record.putInt(crc(record.array()));
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                segment.write(record);
+            }
+            lastSequence = sequence;
+            if (segment.position() >= segmentBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to coin journal", e);
+        }
+        return sequence;
+    }
+
+    // Returns once the record with this sequence has been forced to disk (no-op when fsync is off)
+    public void awaitDurable(long sequence) {
+        if (!fsync || durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (this) {
+                channel = segment;
+                target = lastSequence;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile; roll() forced the segment holding everything up to target before closing it
+            }
+            durableSequence = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync coin journal", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    // Deletes the segments whose records all have a sequence at or below the checkpoint
+    public synchronized void truncate(long checkpoint) {
+        try {
+            List<Path> files = segments();
+            for (int i = 0; i + 1 < files.size(); i++) {
+                if (firstSequence(files.get(i + 1)) - 1 <= checkpoint) {
+                    Files.deleteIfExists(files.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate coin journal", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            try {
+                segment.force(false);
+                segment.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close coin journal", e);
+            }
+        }
+    }
+
+    // A segment with this name can only exist if it holds no complete record (e.g. torn by a crash), so it is reset
+    private void roll() throws IOException {
+        FileChannel previous = segment;
+        segment = FileChannel.open(directory.resolve(String.format("%020d%s", lastSequence + 1, SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (previous != null) {
+            previous.force(false);
+            previous.close();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, 3 * Long.BYTES);
+        return (int) crc.getValue();
+    }
+}
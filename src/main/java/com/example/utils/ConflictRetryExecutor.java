@@ -0,0 +1,64 @@
+package com.example.utils;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.StaleStateException;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Re-runs a unit of work when it fails on an optimistic locking conflict, with
+ * a bounded number of attempts and exponential backoff with full jitter. The
+ * work must start its own transaction on each attempt, so this must only wrap
+ * code that is not already inside a transaction (see {@link RetryOnConflict}).
+ */
+@ApplicationScoped
+public class ConflictRetryExecutor {
+
+    private static final Logger LOG = Logger.getLogger(ConflictRetryExecutor.class);
+
+    @ConfigProperty(name = "user.retry.max-attempts", defaultValue = "8")
+    int maxAttempts;
+
+    @ConfigProperty(name = "user.retry.base-backoff-ms", defaultValue = "5")
+    long baseBackoffMs;
+
+    @ConfigProperty(name = "user.retry.max-backoff-ms", defaultValue = "200")
+    long maxBackoffMs;
+
+    public <T> T execute(Callable<T> work) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isConflict(e)) {
+                    throw e;
+                }
+                long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+                long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                LOG.debugf("Optimistic lock conflict, retrying in %d ms (attempt %d of %d)", backoff, attempt, maxAttempts);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    public static boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+            for (Throwable suppressed : cause.getSuppressed()) {
+                if (isConflict(suppressed)) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
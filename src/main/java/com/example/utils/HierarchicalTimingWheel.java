@@ -0,0 +1,109 @@
+package com.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: level 0 has one slot per tick, each level above
+ * covers {@code wheelSize} slots of the level below. Scheduling is O(1) and
+ * advancing costs O(1) per tick plus the entries that fire or cascade down, no
+ * matter how many deadlines are pending. Deadlines beyond the top level wait in
+ * an overflow list that is re-placed each time the top level wraps.
+ * Deadlines are rounded down to a tick, so entries fire up to one tick early.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private record Entry<T>(T item, long tick) {
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    // levels.get(level).get(slot) holds the entries waiting in that slot
+    private final List<List<List<Entry<T>>>> levels;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        if (tickMs < 1 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Tick, wheel size and level count must be positive, wheel size at least 2.");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long ticks = 1;
+        for (int level = 0; level < levelCount; level++) {
+            levelTicks[level] = ticks;
+            List<List<Entry<T>>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    public synchronized void schedule(T item, long deadlineMs) {
+        place(new Entry<>(item, deadlineMs / tickMs));
+        size++;
+    }
+
+    // Moves the wheel up to nowMs and returns everything whose deadline has passed
+    public synchronized List<T> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if (currentTick % levelTicks[level] == 0) {
+                    cascade(levels.get(level).get(slot(currentTick, level)));
+                }
+            }
+            if (currentTick % (levelTicks[levels.size() - 1] * wheelSize) == 0) {
+                cascade(overflow);
+            }
+            cascade(levels.get(0).get(slot(currentTick, 0)));
+        }
+        List<T> fired = new ArrayList<>(due);
+        due.clear();
+        size -= fired.size();
+        return fired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(List<Entry<T>> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry<T> entry : entries) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.tick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry.item());
+            return;
+        }
+        for (int level = 0; level < levels.size(); level++) {
+            if (delta < levelTicks[level] * wheelSize) {
+                levels.get(level).get(slot(entry.tick(), level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / levelTicks[level]) % wheelSize);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+
+// Replays the stored response when an @Idempotent endpoint is called again with the same
+// Idempotency-Key. Keys are scoped to the caller; reusing one for a different request (method, path,
+// query or body) is a 422.
+// Only final outcomes are stored; server errors and timeouts, conflicts, locks and 429s are not, so the
+// client can retry them with the same key.
+@Provider
+@Idempotent
+@Priority(Priorities.USER)
+public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String CLAIMED = IdempotencyFilter.class.getName() + ".key";
+    private static final String FINGERPRINT = IdempotencyFilter.class.getName() + ".fingerprint";
+
+    @Inject
+    IdempotencyStore store;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        String header = request.getHeaderString(HEADER);
+        if (header == null || header.isBlank()) {
+            return;
+        }
+        if (header.length() > 255) {
+            request.abortWith(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(HEADER + " must be at most 255 characters.").build());
+            return;
+        }
+        Principal principal = request.getSecurityContext().getUserPrincipal();
+        String key = (principal == null ? "" : principal.getName()) + ":" + header;
+        String fingerprint = request.getMethod() + " " + request.getUriInfo().getRequestUri().getRawPath()
+                + "?" + request.getUriInfo().getRequestUri().getRawQuery() + bodyHash(request);
+
+        IdempotencyStore.StoredResponse stored = store.claim(key);
+        if (stored == null) {
+            request.setProperty(CLAIMED, key);
+            request.setProperty(FINGERPRINT, fingerprint);
+        } else if (!stored.fingerprint().equals(fingerprint)) {
+            request.abortWith(Response.status(422)
+                    .entity(HEADER + " was already used for a different request.").build());
+        } else {
+            Response.ResponseBuilder replay = Response.status(stored.status()).header("Idempotent-Replayed", "true");
+            if (stored.body() != null) {
+                replay.entity(stored.body()).type(stored.mediaType());
+            }
+            request.abortWith(replay.build());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        String key = (String) request.getProperty(CLAIMED);
+        if (key == null) {
+            return;
+        }
+        request.removeProperty(CLAIMED);
+        if (!isFinal(response.getStatus())) {
+            store.complete(key, null);
+            return;
+        }
+        store.complete(key, new IdempotencyStore.StoredResponse((String) request.getProperty(FINGERPRINT),
+                response.getStatus(), mediaType(response), body(response.getEntity())));
+    }
+
+    // SHA-256 of the request body, which is put back for the endpoint to read; empty without a body
+    private static String bodyHash(ContainerRequestContext request) {
+        if (!request.hasEntity()) {
+            return "";
+        }
+        try {
+            byte[] body = request.getEntityStream().readAllBytes();
+            request.setEntityStream(new ByteArrayInputStream(body));
+            return body.length == 0 ? "" : " " + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Outcomes a retry would get again: 2xx, and 4xx except those that ask the client to try later
+    static boolean isFinal(int status) {
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        return status >= 400 && status < 500 && status != 408 && status != 409 && status != 423 && status != 429;
+    }
+
+    private String body(Object entity) {
+        if (entity == null || entity instanceof String) {
+            return (String) entity;
+        }
+        try {
+            return objectMapper.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String mediaType(ContainerResponseContext response) {
+        if (response.getEntity() instanceof String && response.getMediaType() != null) {
+            return response.getMediaType().toString();
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
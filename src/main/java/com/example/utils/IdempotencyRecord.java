@@ -0,0 +1,53 @@
+package com.example.utils;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Response stored for an Idempotency-Key, replayed for retries of the same request
+@Entity
+@Table(name = "idempotency_records", indexes = @Index(name = "idx_idempotency_created", columnList = "createdAt"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 512)
+    private String id;
+
+    @Column(nullable = false, length = 1024)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    private String mediaType;
+
+    @Column(length = 8192)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, IdempotencyStore.StoredResponse response) {
+        this.id = id;
+        this.fingerprint = response.fingerprint();
+        this.status = response.status();
+        this.mediaType = response.mediaType();
+        this.body = response.body();
+        this.createdAt = Instant.now();
+    }
+
+    IdempotencyStore.StoredResponse toResponse() {
+        return new IdempotencyStore.StoredResponse(fingerprint, status, mediaType, body);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
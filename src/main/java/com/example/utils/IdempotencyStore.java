@@ -0,0 +1,131 @@
+package com.example.utils;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Responses of idempotent requests by key. Recent responses are kept in a
+ * bounded LRU map in front of the idempotency_records table; requests still
+ * executing are tracked as futures so a concurrent duplicate waits for the
+ * first one instead of running alongside it.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+
+    private static final Logger LOG = Logger.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(String fingerprint, int status, String mediaType, String body) {
+    }
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "user.idempotency.ttl", defaultValue = "24H")
+    Duration ttl;
+
+    @ConfigProperty(name = "user.idempotency.wait-timeout", defaultValue = "30s")
+    Duration waitTimeout;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, StoredResponse> recent;
+
+    @Inject
+    public IdempotencyStore(@ConfigProperty(name = "user.idempotency.max-entries", defaultValue = "10000") int maxEntries) {
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Returns the stored response for the key, waiting if the same key is in
+     * flight, or null if the caller now owns the key and must execute the
+     * request and then call {@link #complete}.
+     */
+    public StoredResponse claim(String key) {
+        while (true) {
+            StoredResponse stored = recent.get(key);
+            if (stored != null) {
+                return stored;
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                IdempotencyRecord record = QuarkusTransaction.requiringNew().call(() -> em.find(IdempotencyRecord.class, key));
+                if (record == null) {
+                    return null;
+                }
+                stored = record.toResponse();
+                recent.put(key, stored);
+                inFlight.remove(key, mine);
+                mine.complete(stored);
+                return stored;
+            }
+            try {
+                stored = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new WebApplicationException("A request with this Idempotency-Key is still in progress.",
+                        Response.Status.CONFLICT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                return stored;
+            }
+            // The first execution did not produce a storable response: try to run it ourselves
+        }
+    }
+
+    /**
+     * Stores the owner's response (null if it should not be replayed) and
+     * releases waiters. If the table write fails, the response is still kept
+     * in memory and handed to the waiters: the request has already run, so
+     * they must not run it again.
+     */
+    public void complete(String key, StoredResponse response) {
+        if (response != null) {
+            recent.put(key, response);
+            try {
+                QuarkusTransaction.requiringNew().run(() -> em.persist(new IdempotencyRecord(key, response)));
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Could not store the response for Idempotency-Key %s, it is only kept in memory", key);
+            }
+        }
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(response);
+        }
+    }
+
+    @Scheduled(every = "1h", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void expire() {
+        Instant cutoff = Instant.now().minus(ttl);
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                        "DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+                .setParameter("cutoff", cutoff)
+                .executeUpdate());
+    }
+}
@@ -1,15 +1,36 @@
 package com.example.utils;
 
 import io.smallrye.jwt.build.Jwt;
+import jakarta.json.JsonNumber;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
 import java.util.Set;
 
 public class JwtUtils {
 
+    public static final String USER_ID_CLAIM = "uid";
+
     // Generates a JWT token for a user
-    public static String generateToken(String username, String role) {
+    public static String generateToken(Long userId, String username, String role) {
         return Jwt.subject(username)
+                .claim(USER_ID_CLAIM, userId) // Lets resources check ownership without loading the user
                 .groups(Set.of(role)) // Default group
                 .expiresIn(3600)        // Token expires in 1 hour
                 .sign();                // Signs the JWT with Quarkus' default secret key
     }
+
+    // User id carried by the token, or null for tokens issued without it
+    public static Long userIdOf(JsonWebToken token) {
+        if (token == null) {
+            return null;
+        }
+        Object claim = token.getClaim(USER_ID_CLAIM);
+        if (claim instanceof JsonNumber number) {
+            return number.longValue();
+        }
+        if (claim instanceof Number number) {
+            return number.longValue();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.utils;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import java.util.Set;
+
+@Singleton
+public class MetricsConfiguration {
+
+    // Meters that get a full latency histogram so p50/p99 can be computed at scrape time
+    private static final Set<String> HISTOGRAMS = Set.of(
+            "http.server.requests",
+            "http.client.requests",
+            "user.bcrypt",
+            "user.request.sql.statements");
+
+    @Produces
+    @Singleton
+    public MeterFilter enableHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (HISTOGRAMS.contains(id.getName())) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+// Records the number of SQL statements issued per endpoint. Latency and call
+// counts per endpoint come from the http.server.requests timer.
+@Provider
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        SqlStatementCounter.reset();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return;
+        }
+        DistributionSummary.builder("user.request.sql.statements")
+                .description("SQL statements issued while handling a request")
+                .tag("endpoint", resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName())
+                .register(registry)
+                .record(SqlStatementCounter.current());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Span timings of the request being handled on the current thread. A request
+ * filter opens the recorder, interceptors and Hibernate listeners add spans,
+ * and the response filter turns them into a {@code Server-Timing} header.
+ * When timing is disabled nothing is allocated and {@link #record} is a no-op.
+ */
+public final class RequestTimings {
+
+    private static volatile boolean enabled = true;
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    // span name -> {total nanos, count}
+    private final Map<String, long[]> spans = new LinkedHashMap<>();
+
+    private RequestTimings() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void begin() {
+        if (enabled) {
+            CURRENT.set(new RequestTimings());
+        }
+    }
+
+    public static RequestTimings end() {
+        RequestTimings timings = CURRENT.get();
+        CURRENT.remove();
+        return timings;
+    }
+
+    public static boolean active() {
+        return enabled && CURRENT.get() != null;
+    }
+
+    public static void record(String name, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            long[] span = timings.spans.computeIfAbsent(name, key -> new long[2]);
+            span[0] += nanos;
+            span[1]++;
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public Map<String, Double> spansMillis() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        spans.forEach((name, span) -> result.put(name, span[0] / 1_000_000.0));
+        return result;
+    }
+
+    public String toHeader() {
+        StringBuilder header = new StringBuilder();
+        header.append(String.format(Locale.ROOT, "total;dur=%.2f", elapsedNanos() / 1_000_000.0));
+        spans.forEach((name, span) -> {
+            header.append(String.format(Locale.ROOT, ", %s;dur=%.2f", name, span[0] / 1_000_000.0));
+            if (span[1] > 1) {
+                header.append(";desc=\"x").append(span[1]).append('"');
+            }
+        });
+        return header.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.utils;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Retries the annotated @Transactional method in a fresh transaction when it
+// fails on an optimistic locking conflict. Only put this on methods whose side
+// effects are all in the database: remote calls would be repeated.
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
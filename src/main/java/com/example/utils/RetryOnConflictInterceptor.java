@@ -0,0 +1,28 @@
+package com.example.utils;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+// At PLATFORM_BEFORE + 100, ahead of @Transactional (+200): each attempt begins and commits its own
+// transaction, so a conflict detected at commit is still inside the retry loop.
+@RetryOnConflict
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class RetryOnConflictInterceptor {
+
+    @Inject
+    ConflictRetryExecutor retryExecutor;
+
+    @AroundInvoke
+    Object retry(InvocationContext context) throws Exception {
+        // Joined an outer transaction: a conflict has to roll back and retry the caller
+        if (QuarkusTransaction.isActive()) {
+            return context.proceed();
+        }
+        return retryExecutor.execute(context::proceed);
+    }
+}
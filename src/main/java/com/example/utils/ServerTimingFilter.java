@@ -0,0 +1,52 @@
+package com.example.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+
+// Opens the span recorder for each request, emits the Server-Timing header and
+// keeps requests above user.timing.slow-threshold-ms in the SlowRequestLog.
+@Provider
+public class ServerTimingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @ConfigProperty(name = "user.timing.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "user.timing.slow-threshold-ms", defaultValue = "1000")
+    long slowThresholdMs;
+
+    @Inject
+    SlowRequestLog slowRequests;
+
+    @PostConstruct
+    void init() {
+        RequestTimings.setEnabled(enabled);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        RequestTimings.begin();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        RequestTimings timings = RequestTimings.end();
+        if (timings == null) {
+            return;
+        }
+        response.getHeaders().putSingle("Server-Timing", timings.toHeader());
+
+        double durationMs = timings.elapsedNanos() / 1_000_000.0;
+        if (durationMs >= slowThresholdMs) {
+            slowRequests.add(new SlowRequestLog.SlowRequest(Instant.now(), request.getMethod(),
+                    request.getUriInfo().getPath(), response.getStatus(), durationMs, timings.spansMillis()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.utils;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fixed-size ring buffer of the most recent requests slower than the threshold.
+@ApplicationScoped
+public class SlowRequestLog {
+
+    public record SlowRequest(Instant at, String method, String path, int status, double durationMs,
+                              Map<String, Double> spans) {
+    }
+
+    private final AtomicReferenceArray<SlowRequest> entries;
+    private final AtomicLong cursor = new AtomicLong();
+
+    public SlowRequestLog(@ConfigProperty(name = "user.timing.slow-capacity", defaultValue = "200") int capacity) {
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SlowRequest request) {
+        entries.set((int) (cursor.getAndIncrement() % entries.length()), request);
+    }
+
+    // Newest first
+    public List<SlowRequest> recent() {
+        long end = cursor.get();
+        int size = entries.length();
+        List<SlowRequest> result = new ArrayList<>();
+        for (long i = end - 1; i >= 0 && i >= end - size; i--) {
+            SlowRequest request = entries.get((int) (i % size));
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+}
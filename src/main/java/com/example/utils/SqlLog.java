@@ -0,0 +1,105 @@
+package com.example.utils;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.engine.jdbc.internal.FormatStyle;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replacement for Hibernate's synchronous SQL logging. Statements slower than
+ * the threshold, plus a random sample of the rest, are handed to a background
+ * writer that pretty-prints and logs them, so the request thread only pays for
+ * a queue offer. Settings can be changed at runtime through PUT /admin/sql-log.
+ */
+@ApplicationScoped
+public class SqlLog {
+
+    private static final Logger LOG = Logger.getLogger("com.example.sql");
+
+    public record Settings(boolean enabled, long slowThresholdMs, double sampleRate) {
+    }
+
+    private record Entry(String sql, long nanos, boolean slow) {
+    }
+
+    private static volatile Settings settings = new Settings(false, 500, 0);
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(10_000);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static Thread writer;
+
+    @ConfigProperty(name = "user.sql-log.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "user.sql-log.slow-threshold-ms", defaultValue = "500")
+    long slowThresholdMs;
+
+    @ConfigProperty(name = "user.sql-log.sample-rate", defaultValue = "0")
+    double sampleRate;
+
+    void onStart(@Observes StartupEvent event) {
+        update(new Settings(enabled, slowThresholdMs, sampleRate));
+    }
+
+    public static Settings settings() {
+        return settings;
+    }
+
+    public static synchronized void update(Settings newSettings) {
+        if (newSettings.sampleRate() < 0 || newSettings.sampleRate() > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+        }
+        if (newSettings.slowThresholdMs() < 0) {
+            throw new IllegalArgumentException("Slow threshold cannot be negative.");
+        }
+        settings = newSettings;
+        if (newSettings.enabled() && writer == null) {
+            writer = Thread.ofPlatform().daemon().name("sql-log-writer").start(SqlLog::drain);
+        }
+    }
+
+    // Called on the request thread after each statement execution
+    public static void statementExecuted(long nanos) {
+        Settings current = settings;
+        if (!current.enabled()) {
+            return;
+        }
+        boolean slow = nanos >= current.slowThresholdMs() * 1_000_000;
+        if (!slow && (current.sampleRate() <= 0 || ThreadLocalRandom.current().nextDouble() >= current.sampleRate())) {
+            return;
+        }
+        String sql = SqlStatementCounter.lastSql();
+        if (sql != null && !QUEUE.offer(new Entry(sql, nanos, slow))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                Entry entry = QUEUE.take();
+                long dropped = DROPPED.getAndSet(0);
+                if (dropped > 0) {
+                    LOG.warnf("SQL log queue full, %d statements were not logged", dropped);
+                }
+                String formatted = FormatStyle.BASIC.getFormatter().format(entry.sql());
+                if (entry.slow()) {
+                    LOG.warnf("Slow SQL (%.2f ms):%s", entry.nanos() / 1_000_000.0, formatted);
+                } else {
+                    LOG.infof("Sampled SQL (%.2f ms):%s", entry.nanos() / 1_000_000.0, formatted);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.debug("Could not log SQL statement", e);
+            }
+        }
+    }
+}
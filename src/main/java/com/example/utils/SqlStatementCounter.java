@@ -0,0 +1,38 @@
+package com.example.utils;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements prepared on the current thread, so that each
+// blocking REST call can report how many queries it issued, and remembers the
+// last statement so SqlLog can attach its text to the execution time.
+@PersistenceUnitExtension
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Statements> CURRENT = ThreadLocal.withInitial(Statements::new);
+
+    private static final class Statements {
+        int count;
+        String lastSql;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = CURRENT.get();
+        statements.count++;
+        statements.lastSql = sql;
+        return sql;
+    }
+
+    public static void reset() {
+        CURRENT.get().count = 0;
+    }
+
+    public static int current() {
+        return CURRENT.get().count;
+    }
+
+    public static String lastSql() {
+        return CURRENT.get().lastSql;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an unbounded key space in a fixed amount of memory. Keys are
+ * hashed onto a power-of-two number of slots; each slot packs its last refill
+ * time and remaining tokens into one long that is updated with CAS, so there are
+ * no locks and no per-key allocation. Keys that collide share a bucket, which
+ * can only make the limit stricter, never looser.
+ */
+public class StripedTokenBucket {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+    private final LongSupplier clockMs;
+    private final long epochMs;
+
+    public StripedTokenBucket(int slotCount, int capacity, double refillPerSecond) {
+        this(slotCount, capacity, refillPerSecond, System::currentTimeMillis);
+    }
+
+    StripedTokenBucket(int slotCount, int capacity, double refillPerSecond, LongSupplier clockMs) {
+        if (capacity < 1 || capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + TOKEN_MASK / MILLI + ".");
+        }
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerSecond;
+        this.clockMs = clockMs;
+        this.epochMs = clockMs.getAsLong();
+        // An all-zero slot means "never used": start it full
+        for (int i = 0; i < size; i++) {
+            slots.set(i, capacityMilli);
+        }
+    }
+
+    public boolean tryAcquire(String key) {
+        int index = slot(key);
+        long now = clockMs.getAsLong() - epochMs;
+        while (true) {
+            long state = slots.get(index);
+            long last = state >>> TOKEN_BITS;
+            long tokens = tokens(state, now);
+            if (tokens < MILLI) {
+                return false;
+            }
+            long next = (Math.max(now, last) << TOKEN_BITS) | (tokens - MILLI);
+            if (slots.compareAndSet(index, state, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Whether tryAcquire would succeed right now; takes nothing
+    public boolean hasToken(String key) {
+        return tokens(slots.get(slot(key)), clockMs.getAsLong() - epochMs) >= MILLI;
+    }
+
+    // Gives back a token taken by tryAcquire for an attempt that was then rejected elsewhere
+    public void refund(String key) {
+        int index = slot(key);
+        long now = clockMs.getAsLong() - epochMs;
+        while (true) {
+            long state = slots.get(index);
+            long tokens = Math.min(capacityMilli, tokens(state, now) + MILLI);
+            long next = (Math.max(now, state >>> TOKEN_BITS) << TOKEN_BITS) | tokens;
+            if (slots.compareAndSet(index, state, next)) {
+                return;
+            }
+        }
+    }
+
+    // Seconds until the key's bucket has a token again
+    public long secondsUntilAvailable(String key) {
+        long tokens = tokens(slots.get(slot(key)), clockMs.getAsLong() - epochMs);
+        if (tokens >= MILLI || refillMilliPerMs <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil((MILLI - tokens) / refillMilliPerMs / 1000.0);
+    }
+
+    // Thousandths of a token in the slot at now, refilled since its last update
+    private long tokens(long state, long now) {
+        return Math.min(capacityMilli, (state & TOKEN_MASK) + (long) ((now - (state >>> TOKEN_BITS)) * refillMilliPerMs));
+    }
+
+    int slot(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & mask;
+    }
+}
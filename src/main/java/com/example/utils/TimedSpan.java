@@ -0,0 +1,16 @@
+package com.example.utils;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Records each call of the annotated bean's methods as a Server-Timing span
+// named after the class and method, e.g. "UserService.placeBid".
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimedSpan {
+}
@@ -0,0 +1,34 @@
+package com.example.utils;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+// Outermost at PLATFORM_BEFORE, ahead of @RetryOnConflict (+100) and @Transactional (+200): a service
+// span covers every retry and the commit, which is where flush and lock waits show up.
+@TimedSpan
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class TimedSpanInterceptor {
+
+    @AroundInvoke
+    Object time(InvocationContext context) throws Exception {
+        if (!RequestTimings.active()) {
+            return context.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            RequestTimings.record(spanName(context), System.nanoTime() - start);
+        }
+    }
+
+    private static String spanName(InvocationContext context) {
+        // REST clients are invoked through a generated "$$CDIWrapper" class
+        String type = context.getMethod().getDeclaringClass().getSimpleName();
+        int generated = type.indexOf("$$");
+        return (generated > 0 ? type.substring(0, generated) : type) + "." + context.getMethod().getName();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.utils;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Adds JDBC connection wait, statement execution and flush time to the
+// current request's Server-Timing spans, and feeds statement times to SqlLog. Registered through
+// hibernate.session.events.auto, so Hibernate creates one per session.
+public class TimingSessionEventListener extends BaseSessionEventListener {
+
+    private long connectionStart;
+    private long statementStart;
+    private long batchStart;
+    private long flushStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestTimings.record("db.connection", System.nanoTime() - connectionStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        long nanos = System.nanoTime() - statementStart;
+        RequestTimings.record("db.query", nanos);
+        SqlLog.statementExecuted(nanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.record("db.batch", System.nanoTime() - batchStart);
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTimings.record("db.flush", System.nanoTime() - flushStart);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.user;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class UserConcurrencyTest {
+
+    static final int THREADS = 4;
+    static final int PER_THREAD = 10;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void concurrentCollectionAndCoinUpdatesAreNotLost() throws Exception {
+        Long userId = QuarkusTransaction.requiringNew().call(() -> {
+            User user = new User();
+            user.setUsername("concurrent-" + System.nanoTime());
+            user.setEmail(user.getUsername() + "@test.io");
+            user.setPassword("not-a-real-hash");
+            user.setLimCoins(1000);
+            em.persist(user);
+            return user.getId();
+        });
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long base = t * 1000L;
+            results.add(threads.submit(() -> {
+                start.await();
+                for (long i = 0; i < PER_THREAD; i++) {
+                    userService.addPokemonToUser(userId, base + i);
+                    userService.addEnchereToActive(userId, base + i);
+                    userService.addLimCoins(userId, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        threads.shutdown();
+
+        User user = QuarkusTransaction.requiringNew().call(() -> {
+            User loaded = userService.findUserById(userId);
+            loaded.getPokemons().size();
+            loaded.getEncheres().size();
+            return loaded;
+        });
+        Set<Long> expected = new HashSet<>();
+        for (int t = 0; t < THREADS; t++) {
+            for (long i = 0; i < PER_THREAD; i++) {
+                expected.add(t * 1000L + i);
+            }
+        }
+        assertEquals(expected, new HashSet<>(user.getPokemons()));
+        assertEquals(expected, new HashSet<>(user.getEncheres()));
+        assertEquals(1000 + THREADS * PER_THREAD, user.getLimCoins());
+        assertTrue(user.getVersion() >= 3L * THREADS * PER_THREAD);
+    }
+}
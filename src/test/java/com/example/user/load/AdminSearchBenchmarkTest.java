@@ -0,0 +1,119 @@
+package com.example.user.load;
+
+import com.example.user.AdminService;
+import com.example.user.UserSearchIndex;
+import com.example.user.UserSearchPage;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of GET /admin/users/search query shapes on a large user table
+ * (1M rows by default), in-process. Rows are inserted with one INSERT ... SELECT
+ * and the search index rebuilt from them. Run with
+ * {@code ./gradlew loadTest --tests '*AdminSearchBenchmarkTest' -Dload.search-users=1000000}.
+ */
+@QuarkusTest
+@Tag("load")
+class AdminSearchBenchmarkTest {
+
+    @Inject
+    AdminService adminService;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    EntityManager em;
+
+    int users;
+    String prefix;
+
+    @BeforeEach
+    void seed() {
+        users = Integer.getInteger("load.search-users", 1_000_000);
+        prefix = "s" + System.nanoTime() % 100_000 + "-";
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().timeout(600).run(() -> em.createNativeQuery(
+                        "INSERT INTO users (DTYPE, username, email, password, limCoins, role, version)"
+                                + " SELECT 'User', CONCAT(:prefix, X), CONCAT(:prefix, X, '@bench.test'), 'not-a-real-hash',"
+                                + " MOD(X * 7919, 100000), CASE WHEN MOD(X, 100) = 0 THEN 'Admin' ELSE 'User' END, 0"
+                                + " FROM SYSTEM_RANGE(1, :users)")
+                .setParameter("prefix", prefix)
+                .setParameter("users", users)
+                .executeUpdate());
+        long inserted = System.nanoTime();
+        searchIndex.rebuild();
+        System.out.printf("%nSeeded %d users in %d ms, index rebuilt in %d ms (%d users indexed)%n", users,
+                (inserted - start) / 1_000_000, (System.nanoTime() - inserted) / 1_000_000, searchIndex.size());
+    }
+
+    @Test
+    void searchLatency() throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 10));
+
+        UserSearchPage exact = adminService.searchUsers(prefix + "12345@", false, null, null, null, null, 0, 20);
+        assertEquals(1, exact.total());
+        assertTrue(adminService.searchUsers(null, false, "Admin", 1000, 2000, "-limCoins", 0, 20).total() > 0);
+
+        Map<String, Function<ThreadLocalRandom, UserSearchPage>> shapes = new LinkedHashMap<>();
+        shapes.put("prefix-narrow", random -> adminService.searchUsers(
+                prefix + random.nextInt(1, users / 100), false, null, null, null, "username", 0, 20));
+        shapes.put("prefix-broad", random -> adminService.searchUsers(
+                prefix + random.nextInt(1, 10), false, null, null, null, "username", 0, 20));
+        shapes.put("contains", random -> adminService.searchUsers(
+                "-" + random.nextInt(10_000, 100_000), true, null, null, null, null, 0, 20));
+        shapes.put("role+coins", random -> {
+            int low = random.nextInt(100_000);
+            return adminService.searchUsers(null, false, "Admin", low, low + 1000, "-limCoins", 0, 20);
+        });
+        shapes.put("coins-page", random -> adminService.searchUsers(
+                null, false, null, 50_000, null, "limCoins", random.nextInt(50), 20));
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (Map.Entry<String, Function<ThreadLocalRandom, UserSearchPage>> shape : shapes.entrySet()) {
+            run(recorder, shape.getKey(), shape.getValue(), concurrency, duration);
+        }
+        System.out.printf("Admin search, %d users, %d threads, %ds per shape%n%s%n",
+                users, concurrency, duration.toSeconds(), recorder.report(duration.toSeconds()));
+    }
+
+    private void run(LatencyRecorder recorder, String name, Function<ThreadLocalRandom, UserSearchPage> search,
+                     int concurrency, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            threads.submit(() -> {
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    boolean success = true;
+                    try {
+                        QuarkusTransaction.requiringNew().call(() -> search.apply(ThreadLocalRandom.current()));
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                    recorder.record(name, System.nanoTime() - start, success);
+                }
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+}
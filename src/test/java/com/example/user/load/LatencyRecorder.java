@@ -0,0 +1,74 @@
+package com.example.user.load;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects raw per-endpoint latencies and prints count, error count, throughput
+ * and p50/p99/p999. Samples are kept exactly (no bucketing) since a harness run
+ * is bounded in time.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean success) {
+        series.computeIfAbsent(endpoint, key -> new Series()).add(nanos, success);
+    }
+
+    public long count(String endpoint) {
+        Series s = series.get(endpoint);
+        return s == null ? 0 : s.size;
+    }
+
+    public String report(double elapsedSeconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-16s %9s %7s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)"));
+        for (Map.Entry<String, Series> entry : new TreeMap<>(series).entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            out.append(String.format(Locale.ROOT, "%-16s %9d %7d %10.1f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(),
+                    sorted.length,
+                    entry.getValue().errors,
+                    sorted.length / elapsedSeconds,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.99),
+                    percentile(sorted, 0.999)));
+        }
+        return out.toString();
+    }
+
+    static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private static final class Series {
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long nanos, boolean success) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
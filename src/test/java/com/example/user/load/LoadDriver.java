@@ -0,0 +1,97 @@
+package com.example.user.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Closed-loop load generator: {@code concurrency} workers each pick a weighted
+ * random {@link Operation}, send it and record its latency, until the run time
+ * is over. Results recorded during the warm-up period are discarded.
+ */
+public class LoadDriver {
+
+    /** A named request template with a relative weight in the mix. */
+    public record Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public LoadDriver add(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+        if (weight > 0) {
+            operations.add(new Operation(name, weight, request));
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    public HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    public HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public LatencyRecorder run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        LatencyRecorder warmupRecorder = new LatencyRecorder();
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    Operation operation = pick(random);
+                    boolean success;
+                    try {
+                        HttpResponse<String> response = send(operation.request().apply(random));
+                        success = response.statusCode() < 400;
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    long latency = System.nanoTime() - now;
+                    (now < measureFrom ? warmupRecorder : recorder).record(operation.name(), latency, success);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+        return recorder;
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.user.load;
+
+import com.example.user.UserSummaryView;
+import com.example.user.UserService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load harness. Runs the real endpoints against the embedded test
+ * database, with the Pokémon and Enchère services replaced by the local stubs in
+ * this package. Excluded from {@code ./gradlew test}; run it with
+ * {@code ./gradlew loadTest -Dload.duration-seconds=60 -Dstub.latency-ms=15}.
+ */
+@QuarkusTest
+@Tag("load")
+class LoadHarnessTest {
+
+    static final String PASSWORD = "load-test-password";
+
+    @Inject
+    UserService userService;
+
+    LoadDriver driver;
+    final List<Long> userIds = new ArrayList<>();
+    final Map<Long, String> tokens = new ConcurrentHashMap<>();
+    final Map<Long, String> usernames = new ConcurrentHashMap<>();
+    final Map<Long, Queue<Long>> owned = new ConcurrentHashMap<>();
+    final AtomicLong registrations = new AtomicLong();
+
+    @BeforeEach
+    void seed() throws Exception {
+        int port = ConfigProvider.getConfig().getOptionalValue("quarkus.http.test-port", Integer.class).orElse(8081);
+        driver = new LoadDriver("http://localhost:" + port);
+
+        int users = Integer.getInteger("load.users", 200);
+        String prefix = "load-" + System.nanoTime() + "-";
+        ExecutorService seeding = Executors.newFixedThreadPool(16);
+        List<Future<HttpResponse<String>>> registered = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String body = userJson(prefix + i);
+            registered.add(seeding.submit(() -> driver.send(post("/users/register", body, null))));
+        }
+        for (Future<HttpResponse<String>> response : registered) {
+            response.get();
+        }
+
+        Map<String, Long> idsByUsername = userService.getAllUsers().stream()
+                .filter(user -> user.username().startsWith(prefix))
+                .collect(Collectors.toMap(UserSummaryView::username, UserSummaryView::id));
+        List<Future<?>> logins = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : idsByUsername.entrySet()) {
+            userIds.add(entry.getValue());
+            usernames.put(entry.getValue(), entry.getKey());
+            logins.add(seeding.submit(() -> {
+                HttpResponse<String> response = driver.send(post("/users/login", loginJson(entry.getKey()), null));
+                tokens.put(entry.getValue(), response.body());
+                return null;
+            }));
+        }
+        for (Future<?> login : logins) {
+            login.get();
+        }
+        seeding.shutdown();
+    }
+
+    @Test
+    void realisticMix() throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 30));
+
+        driver.add("login", weight("login", 10), random -> {
+            long id = randomUser(random);
+            return post("/users/login", loginJson(usernameOf(id)), null);
+        });
+        driver.add("register", weight("register", 2), random ->
+                post("/users/register", userJson("load-new-" + registrations.incrementAndGet() + "-" + System.nanoTime()), null));
+        driver.add("add-coins", weight("add-coins", 20), random -> {
+            long id = randomUser(random);
+            return post("/users/" + id + "/add-coins?amount=" + (1 + random.nextInt(50)), "", tokens.get(id));
+        });
+        driver.add("deduct-coins", weight("deduct-coins", 20), random -> {
+            long id = randomUser(random);
+            return post("/users/" + id + "/deduct-coins?amount=" + (1 + random.nextInt(50)), "", tokens.get(id));
+        });
+        driver.add("add-pokemon", weight("add-pokemon", 15), random -> {
+            long id = randomUser(random);
+            long pokemonId = 1 + random.nextInt(StubPokemonResource.CATALOG_SIZE);
+            owned.computeIfAbsent(id, key -> new ConcurrentLinkedQueue<>()).add(pokemonId);
+            return post("/users/" + id + "/add-pokemon/" + pokemonId, "", tokens.get(id));
+        });
+        driver.add("sell-pokemon", weight("sell-pokemon", 10), random -> {
+            long id = randomUser(random);
+            Long pokemonId = owned.getOrDefault(id, new ConcurrentLinkedQueue<>()).poll();
+            long toSell = pokemonId != null ? pokemonId : 1 + random.nextInt(StubPokemonResource.CATALOG_SIZE);
+            return post("/users/" + id + "/sell-pokemon/" + toSell, "", tokens.get(id));
+        });
+        driver.add("place-bid", weight("place-bid", 15), random -> {
+            long id = randomUser(random);
+            long enchereId = 1 + random.nextInt(Integer.getInteger("load.auctions", 50));
+            return post("/users/" + id + "/place-bid/" + enchereId + "?amount=" + (10 + random.nextInt(1000)), "", tokens.get(id));
+        });
+        driver.add("get-user", weight("get-user", 25), random -> {
+            long id = randomUser(random);
+            return driver.request("/users/" + id).header("Authorization", "Bearer " + tokens.get(id)).GET().build();
+        });
+
+        long started = System.nanoTime();
+        LatencyRecorder recorder = driver.run(concurrency, warmup, duration);
+        double elapsed = (System.nanoTime() - started) / 1e9 - warmup.toSeconds();
+
+        System.out.printf("%nLoad harness: %d users, %d workers, %ds measured%n%s%n",
+                userIds.size(), concurrency, duration.toSeconds(), recorder.report(elapsed));
+        assertTrue(recorder.count("get-user") > 0, "the harness should have driven traffic");
+    }
+
+    HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder builder = driver.request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    long randomUser(ThreadLocalRandom random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    String usernameOf(long id) {
+        return usernames.get(id);
+    }
+
+    static int weight(String operation, int defaultWeight) {
+        return Integer.getInteger("load.mix." + operation, defaultWeight);
+    }
+
+    static String userJson(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@load.test\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    static String loginJson(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.user.load;
+
+import com.example.user.User;
+import com.example.user.UserRepository;
+import com.example.user.UserService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the entity read path (em.find + lazy collection) with the
+ * UserRepository read path at high concurrency, first in-process and then
+ * through the HTTP endpoints. Run with {@code ./gradlew loadTest -Dload.concurrency=1000}.
+ */
+@QuarkusTest
+@Tag("load")
+class ReadPathBenchmarkTest {
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    EntityManager em;
+
+    final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        int users = Integer.getInteger("load.users", 500);
+        String prefix = "read-" + System.nanoTime() + "-";
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < users; i++) {
+                User user = new User();
+                user.setUsername(prefix + i);
+                user.setEmail(prefix + i + "@bench.test");
+                user.setPassword("not-a-real-hash");
+                user.setLimCoins(ThreadLocalRandom.current().nextInt(10_000));
+                for (long p = 0; p < 20; p++) {
+                    user.getPokemons().add(p + i);
+                }
+                for (long e = 0; e < 5; e++) {
+                    user.getEncheres().add(e + i);
+                }
+                em.persist(user);
+                userIds.add(user.getId());
+            }
+        });
+    }
+
+    @Test
+    void entityVersusRepository() throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 1000);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 20));
+
+        Long sample = userIds.get(0);
+        assertEquals(QuarkusTransaction.requiringNew().call(() -> new ArrayList<>(userService.findUserById(sample).getPokemons())),
+                QuarkusTransaction.requiringNew().call(() -> userRepository.pokemonIds(sample)));
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        run(recorder, "entity", concurrency, duration, id ->
+                QuarkusTransaction.requiringNew().call(() -> userService.findUserById(id).getPokemons().size()));
+        run(recorder, "repository", concurrency, duration, id ->
+                QuarkusTransaction.requiringNew().call(() -> userRepository.pokemonIds(id).size()));
+        System.out.printf("%nIn-process read path, %d threads, %ds each%n%s%n",
+                concurrency, duration.toSeconds(), recorder.report(duration.toSeconds()));
+
+        int port = ConfigProvider.getConfig().getOptionalValue("quarkus.http.test-port", Integer.class).orElse(8081);
+        LoadDriver http = new LoadDriver("http://localhost:" + port);
+        http.add("GET pokemons", 1, random -> http.request("/users/" + randomUser(random) + "/pokemons").GET().build());
+        http.add("GET bids", 1, random -> http.request("/users/" + randomUser(random) + "/bids").GET().build());
+        LatencyRecorder endpoints = http.run(concurrency, Duration.ofSeconds(3), duration);
+        System.out.printf("HTTP read endpoints, %d connections, %ds%n%s%n",
+                concurrency, duration.toSeconds(), endpoints.report(duration.toSeconds()));
+    }
+
+    private void run(LatencyRecorder recorder, String name, int concurrency, Duration duration,
+                     LongFunction<Integer> read) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            threads.submit(() -> {
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    boolean success = true;
+                    try {
+                        read.apply(randomUser(ThreadLocalRandom.current()));
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                    recorder.record(name, System.nanoTime() - start, success);
+                }
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private long randomUser(ThreadLocalRandom random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+}
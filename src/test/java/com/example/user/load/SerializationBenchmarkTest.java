@@ -0,0 +1,105 @@
+package com.example.user.load;
+
+import com.example.user.User;
+import com.example.user.UserRepository;
+import com.example.user.UserService;
+import com.example.utils.SqlStatementCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Payload size, serialization time and SQL statements of the user list and
+ * user detail responses: the User entity as previously returned versus the
+ * summary/detail views. Run with {@code ./gradlew loadTest --tests '*SerializationBenchmarkTest'}.
+ */
+@QuarkusTest
+@Tag("load")
+class SerializationBenchmarkTest {
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        int users = Integer.getInteger("load.users", 500);
+        String prefix = "ser-" + System.nanoTime() + "-";
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < users; i++) {
+                User user = new User();
+                user.setUsername(prefix + i);
+                user.setEmail(prefix + i + "@bench.test");
+                user.setPassword("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+                user.setLimCoins(i);
+                for (long p = 0; p < 20; p++) {
+                    user.getPokemons().add(p + i);
+                }
+                for (long e = 0; e < 5; e++) {
+                    user.getEncheres().add(e + i);
+                }
+                em.persist(user);
+                userIds.add(user.getId());
+            }
+        });
+    }
+
+    @Test
+    void entityVersusViews() throws Exception {
+        int rounds = Integer.getInteger("load.rounds", 20);
+        System.out.printf("%n%-22s %12s %12s %10s%n", "response", "bytes", "ms/round", "sql");
+        measure("list: User entity", rounds, () -> objectMapper.writeValueAsBytes(
+                em.createQuery("SELECT u FROM User u", User.class).getResultList()));
+        measure("list: summary view", rounds, () -> objectMapper.writeValueAsBytes(userService.getAllUsers()));
+        Long id = userIds.get(userIds.size() / 2);
+        measure("detail: User entity", rounds * 50, () -> objectMapper.writeValueAsBytes(em.find(User.class, id)));
+        measure("detail: detail view", rounds * 50, () -> objectMapper.writeValueAsBytes(userService.getUserProfile(id)));
+
+        assertFalse(new String(objectMapper.writeValueAsBytes(userService.getUserProfile(id))).contains("password"));
+    }
+
+    private void measure(String name, int rounds, Callable<byte[]> response) {
+        int bytes = 0;
+        long sql = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            // One transaction per round, as per request: no first-level cache carried between rounds
+            int[] size = new int[1];
+            long[] statements = new long[1];
+            QuarkusTransaction.requiringNew().run(() -> {
+                SqlStatementCounter.reset();
+                try {
+                    size[0] = response.call().length;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                statements[0] = SqlStatementCounter.current();
+            });
+            bytes = size[0];
+            sql += statements[0];
+        }
+        double msPerRound = (System.nanoTime() - start) / 1_000_000.0 / rounds;
+        System.out.printf("%-22s %12d %12.3f %10.1f%n", name, bytes, msPerRound, (double) sql / rounds);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.user.load;
+
+import com.example.user.Enchere;
+import com.example.utils.CborProvider;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Enchère service that {@code EnchereRestClient} talks to.
+ * Auctions are kept in memory; unknown ids are created on first access so the
+ * harness can bid on any id without seeding.
+ */
+@Path("/stub/encheres")
+@Produces({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+public class StubEnchereResource {
+
+    static final ConcurrentHashMap<Long, Enchere> ENCHERES = new ConcurrentHashMap<>();
+    static final AtomicLong IDS = new AtomicLong(1_000_000);
+
+    @Inject
+    StubFaults faults;
+
+    @POST
+    @Path("/creteEnchereAleatoire")
+    public void createEnchereAleatoire() {
+        faults.apply();
+        enchere(IDS.incrementAndGet());
+    }
+
+    @POST
+    @Path("/{userid}/{pokemonid}/{amount}")
+    public Long createEnchere(@PathParam("userid") Long userid, @PathParam("pokemonid") Long pokemonid, @PathParam("amount") double amount) {
+        faults.apply();
+        Enchere enchere = enchere(IDS.incrementAndGet());
+        enchere.setPokemonId(pokemonid);
+        enchere.setStartingPrice(amount);
+        return enchere.getId();
+    }
+
+    @GET
+    @Path("/{id}/{userId}/{Bid}")
+    public Response placerBid(@PathParam("id") Long id, @PathParam("userId") Long userId, @PathParam("Bid") double bid) {
+        faults.apply();
+        Enchere enchere = enchere(id);
+        synchronized (enchere) {
+            if (bid > enchere.getHighestBid()) {
+                enchere.setHighestBid(bid);
+                enchere.setHighestBidderId(userId);
+            }
+        }
+        return Response.ok().build();
+    }
+
+    @GET
+    @Path("/Enchere/{id}")
+    public Enchere getEncherebyId(@PathParam("id") Long id) {
+        faults.apply();
+        return enchere(id);
+    }
+
+    @GET
+    public List<Enchere> getAllEncheres() {
+        faults.apply();
+        return new ArrayList<>(ENCHERES.values());
+    }
+
+    @GET
+    @Path("/{type}")
+    public List<Enchere> getAllEncheresByType(@PathParam("type") String type) {
+        faults.apply();
+        return getAllEncheres();
+    }
+
+    @POST
+    @Path("/{pokemonId}/addAuctionHistory")
+    public Response addAuctionHistory(@PathParam("pokemonId") Long pokemonId, Enchere enchere) {
+        faults.apply();
+        return Response.ok().build();
+    }
+
+    @DELETE
+    @Path("/{enchereid}/bids/{userid}")
+    public Response enleverBid(@PathParam("enchereid") Long enchereid, @PathParam("userid") Long userid) {
+        faults.apply();
+        return Response.ok().build();
+    }
+
+    static Enchere enchere(long id) {
+        return ENCHERES.computeIfAbsent(id, key -> {
+            Enchere enchere = new Enchere();
+            enchere.setId(key);
+            enchere.setPokemonId(1 + key % StubPokemonResource.CATALOG_SIZE);
+            enchere.setStartingPrice(10);
+            enchere.setHighestBid(10);
+            enchere.setDateExpiration(LocalDateTime.now().plusMinutes(5));
+            enchere.setStatus("actif");
+            return enchere;
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.user.load;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and error injection shared by the stub Pokémon and Enchère services.
+ * Values come from the {@code stub.*} properties and can be changed between runs
+ * with system properties, e.g. {@code -Dstub.latency-ms=20 -Dstub.error-rate=0.01}.
+ */
+@ApplicationScoped
+public class StubFaults {
+
+    @ConfigProperty(name = "stub.latency-ms", defaultValue = "0")
+    long latencyMs;
+
+    @ConfigProperty(name = "stub.jitter-ms", defaultValue = "0")
+    long jitterMs;
+
+    @ConfigProperty(name = "stub.error-rate", defaultValue = "0")
+    double errorRate;
+
+    public void apply() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            throw new WebApplicationException("Injected stub failure", Response.Status.SERVICE_UNAVAILABLE);
+        }
+    }
+}
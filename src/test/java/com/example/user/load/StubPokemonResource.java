@@ -0,0 +1,80 @@
+package com.example.user.load;
+
+import com.example.user.Enchere;
+import com.example.user.Pokemon;
+import com.example.utils.CborProvider;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for the Pokémon service that {@code PokemonServiceClient} talks to.
+ * Every Pokémon exists and is worth {@code 10 + id % 90} LimCoins.
+ */
+@Path("/stub/pokemon-service/pokemons")
+@Produces({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+public class StubPokemonResource {
+
+    static final int CATALOG_SIZE = 500;
+
+    @Inject
+    StubFaults faults;
+
+    @GET
+    public List<Pokemon> listerPokemons() {
+        faults.apply();
+        List<Pokemon> pokemons = new ArrayList<>(CATALOG_SIZE);
+        for (long id = 1; id <= CATALOG_SIZE; id++) {
+            pokemons.add(pokemon(id));
+        }
+        return pokemons;
+    }
+
+    @GET
+    @Path("/random")
+    public Pokemon pokemonAleatoire() {
+        faults.apply();
+        return pokemon(1 + (long) (Math.random() * CATALOG_SIZE));
+    }
+
+    @POST
+    public Pokemon creerPokemon(Pokemon pokemon) {
+        faults.apply();
+        return pokemon;
+    }
+
+    @GET
+    @Path("/{id}")
+    public Pokemon trouverPokemon(@PathParam("id") Long id) {
+        faults.apply();
+        return pokemon(id);
+    }
+
+    @DELETE
+    @Path("/{id}")
+    public void supprimerPokemon(@PathParam("id") Long id) {
+        faults.apply();
+    }
+
+    @POST
+    @Path("/{pokemonId}/addAuction")
+    public Response addAuctionHistory(@PathParam("pokemonId") Long pokemonId, Enchere enchere) {
+        faults.apply();
+        return Response.ok().build();
+    }
+
+    static Pokemon pokemon(long id) {
+        Pokemon pokemon = new Pokemon();
+        pokemon.setId(id);
+        pokemon.setNom("Pokemon-" + id);
+        pokemon.setDescription("Stub Pokémon " + id);
+        pokemon.setValeurReelle(10 + id % 90);
+        pokemon.setMiseAPrix((int) (10 + id % 90));
+        return pokemon;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.user.load;
+
+import com.example.user.Bid;
+import com.example.user.Enchere;
+import com.example.user.Pokemon;
+import com.example.utils.CborProvider;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bytes and encode/decode time of the payloads exchanged with the Enchère and
+ * Pokémon services, as JSON (the application's ObjectMapper) and as CBOR, plus
+ * the bytes actually sent by the stub service for each Accept header.
+ * Run with {@code ./gradlew loadTest --tests '*WireFormatBenchmarkTest'}.
+ */
+@QuarkusTest
+@Tag("load")
+class WireFormatBenchmarkTest {
+
+    @Inject
+    ObjectMapper json;
+
+    @Test
+    void jsonVersusCbor() throws Exception {
+        int rounds = Integer.getInteger("load.rounds", 2000);
+        List<Pokemon> catalog = new ArrayList<>();
+        for (long id = 1; id <= StubPokemonResource.CATALOG_SIZE; id++) {
+            catalog.add(StubPokemonResource.pokemon(id));
+        }
+        Enchere enchere = StubEnchereResource.enchere(42);
+        List<Bid> bids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bids.add(new Bid(null, (long) i, 10 + i, LocalDateTime.now().minusSeconds(i)));
+        }
+        enchere.setBids(bids);
+
+        System.out.printf("%n%-26s %10s %12s %12s%n", "payload", "bytes", "encode µs", "decode µs");
+        compare("Pokemon catalog (500)", catalog, new TypeReference<List<Pokemon>>() { }, rounds / 10);
+        compare("Enchere with 50 bids", enchere, new TypeReference<Enchere>() { }, rounds);
+
+        int jsonBytes = given().accept("application/json").get("/stub/pokemon-service/pokemons").then()
+                .statusCode(200).extract().asByteArray().length;
+        byte[] cborBody = given().accept(CborProvider.APPLICATION_CBOR).get("/stub/pokemon-service/pokemons").then()
+                .statusCode(200).contentType(CborProvider.APPLICATION_CBOR).extract().asByteArray();
+        List<Pokemon> decoded = CborProvider.MAPPER.readValue(cborBody, new TypeReference<>() { });
+        assertEquals(StubPokemonResource.CATALOG_SIZE, decoded.size());
+        System.out.printf("GET /pokemons on the wire: JSON %d bytes, CBOR %d bytes%n", jsonBytes, cborBody.length);
+    }
+
+    private <T> void compare(String name, T value, TypeReference<T> type, int rounds) throws Exception {
+        measure(name + " JSON", json, value, type, rounds);
+        measure(name + " CBOR", CborProvider.MAPPER, value, type, rounds);
+    }
+
+    private <T> void measure(String name, ObjectMapper mapper, T value, TypeReference<T> type, int rounds) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < rounds; i++) { // warm-up
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+        long encode = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+        }
+        encode = System.nanoTime() - encode;
+        long decode = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            mapper.readValue(bytes, type);
+        }
+        decode = System.nanoTime() - decode;
+        System.out.printf("%-26s %10d %12.1f %12.1f%n", name, bytes.length,
+                encode / 1000.0 / rounds, decode / 1000.0 / rounds);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoinJournalTest {
+
+    // 28-byte records, so a segment rolls after every fourth append
+    static final long SEGMENT_BYTES = 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAfterTheCheckpointAcrossSegments() {
+        appendTen();
+
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            List<CoinJournal.Entry> entries = journal.open(4);
+            assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L), entries.stream().map(CoinJournal.Entry::sequence).toList());
+            assertEquals(new CoinJournal.Entry(5, 7, 4), entries.get(0));
+            assertEquals(11, journal.append(7, 10));
+        }
+    }
+
+    @Test
+    void tornRecordEndsTheReplay() throws IOException {
+        appendTen();
+        List<Path> segments = segments();
+        assertEquals(List.of("00000000000000000001.journal", "00000000000000000005.journal",
+                "00000000000000000009.journal"), names(segments));
+
+        // Flip a byte of record 10, then leave half a record behind it as a crash mid-write would
+        Path last = segments.get(2);
+        byte[] bytes = Files.readAllBytes(last);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(last, bytes);
+        Files.write(last, new byte[14], StandardOpenOption.APPEND);
+
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            List<CoinJournal.Entry> entries = journal.open(0);
+            assertEquals(9, entries.size());
+            assertEquals(9, entries.get(8).sequence());
+            // The torn record's sequence is reused: it was never acknowledged as durable
+            assertEquals(10, journal.append(7, 100));
+        }
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            List<CoinJournal.Entry> entries = journal.open(8);
+            assertEquals(List.of(new CoinJournal.Entry(9, 7, 8), new CoinJournal.Entry(10, 7, 100)), entries);
+        }
+    }
+
+    @Test
+    void truncateKeepsSegmentsWithRecordsPastTheCheckpoint() throws IOException {
+        appendTen();
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            journal.open(0);
+            journal.truncate(7);
+            assertEquals(List.of("00000000000000000005.journal", "00000000000000000009.journal",
+                    "00000000000000000011.journal"), names(segments()));
+            journal.truncate(8);
+            assertEquals(List.of("00000000000000000009.journal", "00000000000000000011.journal"), names(segments()));
+        }
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            assertEquals(List.of(9L, 10L), journal.open(8).stream().map(CoinJournal.Entry::sequence).toList());
+        }
+    }
+
+    @Test
+    void emptyDirectoryStartsAtTheCheckpoint() {
+        try (CoinJournal journal = new CoinJournal(directory.resolve("new"), SEGMENT_BYTES, false)) {
+            assertTrue(journal.open(42).isEmpty());
+            assertEquals(43, journal.append(1, 1));
+        }
+    }
+
+    // Sequences 1..10 for account 7, amount = sequence - 1
+    private void appendTen() {
+        try (CoinJournal journal = new CoinJournal(directory, SEGMENT_BYTES, true)) {
+            journal.open(0);
+            for (int i = 0; i < 10; i++) {
+                journal.awaitDurable(journal.append(7, i));
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<String> names(List<Path> files) {
+        return files.stream().map(file -> file.getFileName().toString()).toList();
+    }
+}
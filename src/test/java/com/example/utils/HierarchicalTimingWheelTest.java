@@ -0,0 +1,83 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HierarchicalTimingWheelTest {
+
+    // 10 ms ticks, 4 slots per level: level 0 spans ticks 0-3, level 1 ticks 4-15, beyond that the overflow list
+    static final long TICK_MS = 10;
+
+    @Test
+    void deadlinesCascadeAcrossLevelBoundaries() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 4, 2, 0);
+        wheel.schedule("level0", 30);
+        wheel.schedule("level1", 50);
+        wheel.schedule("level1-end", 150);
+        wheel.schedule("overflow", 200);
+        assertEquals(4, wheel.size());
+
+        assertEquals(List.of(), wheel.advance(29));
+        assertEquals(List.of("level0"), wheel.advance(30));
+        // Tick 4 moves "level1" down to level 0 without firing it
+        assertEquals(List.of(), wheel.advance(49));
+        assertEquals(List.of("level1"), wheel.advance(59));
+        assertEquals(List.of(), wheel.advance(149));
+        assertEquals(List.of("level1-end"), wheel.advance(150));
+        // The overflow entry is re-placed when level 1 wraps at tick 16
+        assertEquals(List.of(), wheel.advance(199));
+        assertEquals(List.of("overflow"), wheel.advance(200));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void oneAdvanceFiresEverythingItSkipsOver() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK_MS, 4, 2, 0);
+        for (int tick = 1; tick <= 40; tick++) {
+            wheel.schedule(tick, tick * TICK_MS);
+        }
+
+        assertEquals(20, wheel.advance(200).size());
+        assertEquals(20, wheel.size());
+        assertEquals(List.of(21), wheel.advance(210));
+        assertEquals(19, wheel.advance(10_000).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void retrackedItemFiresAgainAtItsNewDeadline() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK_MS, 4, 2, 0);
+        wheel.schedule(7L, 30);
+        assertEquals(List.of(7L), wheel.advance(30));
+
+        // As AuctionReconciler does for an auction still open past its expiry
+        wheel.schedule(7L, 120);
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(119));
+        assertEquals(List.of(7L), wheel.advance(120));
+        assertEquals(List.of(), wheel.advance(500));
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 4, 2, 1000);
+        wheel.schedule("late", 500);
+        wheel.schedule("now", 1000);
+        // Rounded down to tick 100, the current one
+        wheel.schedule("this-tick", 1009);
+
+        assertEquals(List.of("late", "now", "this-tick"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsDegenerateWheels() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(0, 4, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(TICK_MS, 1, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(TICK_MS, 4, 0, 0));
+    }
+}
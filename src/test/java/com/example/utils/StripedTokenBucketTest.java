@@ -0,0 +1,104 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedTokenBucketTest {
+
+    final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void burstUpToCapacityThenRejects() {
+        StripedTokenBucket buckets = new StripedTokenBucket(64, 3, 1, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buckets.tryAcquire("alice"));
+        }
+        assertFalse(buckets.tryAcquire("alice"));
+        assertFalse(buckets.hasToken("alice"));
+        assertEquals(1, buckets.secondsUntilAvailable("alice"));
+    }
+
+    @Test
+    void refillsOverTimeUpToCapacity() {
+        StripedTokenBucket buckets = new StripedTokenBucket(64, 3, 2, clock::get);
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("alice");
+        }
+
+        // Two tokens a second: half a second short of one is not enough
+        clock.addAndGet(499);
+        assertFalse(buckets.tryAcquire("alice"));
+        clock.addAndGet(1);
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.tryAcquire("alice"));
+
+        // A long pause refills to capacity, not beyond
+        clock.addAndGet(60_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buckets.tryAcquire("alice"));
+        }
+        assertFalse(buckets.tryAcquire("alice"));
+    }
+
+    @Test
+    void refundReturnsATokenWithoutExceedingCapacity() {
+        StripedTokenBucket buckets = new StripedTokenBucket(64, 2, 0, clock::get);
+        assertTrue(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.hasToken("alice"));
+
+        buckets.refund("alice");
+        assertTrue(buckets.hasToken("alice"));
+        buckets.refund("alice");
+        buckets.refund("alice");
+        assertTrue(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.tryAcquire("alice"));
+    }
+
+    @Test
+    void keysShareABucketOnlyWithinTheirStripe() {
+        StripedTokenBucket buckets = new StripedTokenBucket(4, 1, 0, clock::get);
+        String key = "user-0";
+        String sameStripe = null;
+        String otherStripe = null;
+        for (int i = 1; sameStripe == null || otherStripe == null; i++) {
+            String candidate = "user-" + i;
+            if (buckets.slot(candidate) == buckets.slot(key)) {
+                sameStripe = sameStripe == null ? candidate : sameStripe;
+            } else {
+                otherStripe = otherStripe == null ? candidate : otherStripe;
+            }
+        }
+
+        assertTrue(buckets.tryAcquire(key));
+        // A colliding key can only be limited more strictly, never less
+        assertFalse(buckets.tryAcquire(sameStripe));
+        assertTrue(buckets.tryAcquire(otherStripe));
+    }
+
+    @Test
+    void slotCountRoundsUpToAPowerOfTwo() {
+        StripedTokenBucket buckets = new StripedTokenBucket(1000, 1, 0, clock::get);
+        boolean highSlot = false;
+        for (int i = 0; i < 10_000; i++) {
+            int slot = buckets.slot("key-" + i);
+            assertTrue(slot >= 0 && slot < 1024);
+            highSlot |= slot >= 1000;
+        }
+        assertTrue(highSlot);
+    }
+
+    @Test
+    void rejectsCapacityThatDoesNotFitTheSlot() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedTokenBucket(64, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StripedTokenBucket(64, 1049, 1));
+    }
+}